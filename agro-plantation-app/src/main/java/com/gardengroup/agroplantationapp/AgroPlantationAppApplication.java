@@ -2,8 +2,10 @@ package com.gardengroup.agroplantationapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AgroPlantationAppApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(AgroPlantationAppApplication.class, args);
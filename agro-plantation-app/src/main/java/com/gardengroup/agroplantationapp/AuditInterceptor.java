@@ -1,33 +1,38 @@
-package com.gardengroup.agroplantationapp;
-
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
-
-import com.gardengroup.agroplantationapp.model.entity.AuditLog;
-import com.gardengroup.agroplantationapp.model.repository.AuditLogRepository;
-
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import java.time.LocalDateTime;
-
-@Component
-public class AuditInterceptor implements HandlerInterceptor {
-
-    @Autowired
-    private AuditLogRepository auditLogRepository;
-
-    @Override
-    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        AuditLog log = new AuditLog();
-        log.setUsername(request.getUserPrincipal() != null ? request.getUserPrincipal().getName() : "ANÓNIMO");
-        log.setAction("Acceso");
-        log.setMethod(request.getMethod());
-        log.setEndpoint(request.getRequestURI());
-        log.setTimestamp(LocalDateTime.now());
-        log.setIp(request.getRemoteAddr());
-
-        auditLogRepository.save(log);
-        return true;
-    }
-}
\ No newline at end of file
+package com.gardengroup.agroplantationapp;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+import com.gardengroup.agroplantationapp.service.implementation.AuditLogService;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.LocalDateTime;
+
+@Component
+public class AuditInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Los despachos asíncronos (SSE) ya se registraron en la petición original
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        // Solo se encola; AuditLogService lo escribe en lotes desde su propio hilo
+        auditLogService.record(new AuditRecord(
+                request.getUserPrincipal() != null ? request.getUserPrincipal().getName() : "ANÓNIMO",
+                "Acceso",
+                request.getMethod(),
+                request.getRequestURI(),
+                LocalDateTime.now(),
+                request.getRemoteAddr()));
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.gardengroup.agroplantationapp;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private AuditInterceptor auditInterceptor;
+
+    @Value("${audit.enabled:true}")
+    private boolean auditEnabled;
+
+    // Auditoría de los accesos a la API, sin la documentación de Swagger
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (auditEnabled) {
+            registry.addInterceptor(auditInterceptor)
+                    .addPathPatterns("/**")
+                    .excludePathPatterns("/swagger-ui/**", "/swagger-ui.html/**", "/v3/api-docs/**", "/error");
+        }
+    }
+}
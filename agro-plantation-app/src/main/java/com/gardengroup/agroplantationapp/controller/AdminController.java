@@ -0,0 +1,154 @@
+package com.gardengroup.agroplantationapp.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditPageDTO;
+import com.gardengroup.agroplantationapp.model.dto.user.RevokeTokenDTO;
+import com.gardengroup.agroplantationapp.model.entity.User;
+import com.gardengroup.agroplantationapp.security.JwtTokenProvider;
+import com.gardengroup.agroplantationapp.security.TokenRevocationStore;
+import com.gardengroup.agroplantationapp.service.implementation.AuditQueryService;
+import com.gardengroup.agroplantationapp.service.implementation.ScoreReconciliationService;
+import com.gardengroup.agroplantationapp.service.implementation.ScoreReconciliationService.Report;
+import com.gardengroup.agroplantationapp.service.implementation.UserImportService;
+import com.gardengroup.agroplantationapp.service.interfaces.IPublicationService;
+import com.gardengroup.agroplantationapp.service.interfaces.IUserService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/v1/admin")
+@CrossOrigin(origins = "*")
+@Slf4j
+public class AdminController {
+        @Autowired
+        private ScoreReconciliationService scoreReconciliationService;
+        @Autowired
+        private JwtTokenProvider jwtTokenProvider;
+        @Autowired
+        private TokenRevocationStore tokenRevocationStore;
+        @Autowired
+        private IUserService userService;
+        @Autowired
+        private IPublicationService publicationService;
+        @Autowired
+        private UserImportService userImportService;
+        @Autowired
+        private AuditQueryService auditQueryService;
+
+        @Operation(summary = "Reconciliar scores", description = "End Point para recalcular el score de las publicaciones a partir de sus votos y corregir las desfasadas, devuelve el desfase encontrado y el rendimiento, con Token de administrador", tags = {
+                        "Admin" })
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Reconciliación ejecutada exitosamente"),
+                        @ApiResponse(responseCode = "409", description = "Ya hay una reconciliación en curso"),
+                        @ApiResponse(responseCode = "500", description = "Error al reconciliar los scores")
+        })
+        @PostMapping("/scores/reconcile")
+        public ResponseEntity<Report> reconcileScores() {
+                return scoreReconciliationService.reconcile()
+                                .map(ResponseEntity::ok)
+                                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+        }
+
+        @Operation(summary = "Revocar token", description = "End Point para revocar un token de acceso hasta su expiración, con Token de administrador", tags = {
+                        "Admin" })
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "204", description = "Token revocado exitosamente"),
+                        @ApiResponse(responseCode = "400", description = "El token no es válido o ya ha expirado")
+        })
+        @PostMapping("/tokens/revoke")
+        public ResponseEntity<Void> revokeToken(@RequestBody RevokeTokenDTO revokeTokenDTO) {
+                jwtTokenProvider.revoke(revokeTokenDTO.getToken());
+                return ResponseEntity.noContent().build();
+        }
+
+        @Operation(summary = "Revocar tokens de un usuario", description = "End Point para revocar todos los tokens emitidos hasta ahora a un usuario, con Token de administrador", tags = {
+                        "Admin" })
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "204", description = "Tokens revocados exitosamente"),
+                        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+        })
+        @PostMapping("/users/tokens/revoke")
+        public ResponseEntity<Void> revokeUserTokens(@RequestParam String email) {
+                User user = userService.findByEmail(email);
+                tokenRevocationStore.revokeUser(user.getEmail());
+                return ResponseEntity.noContent().build();
+        }
+
+        @Operation(summary = "Cambiar rol de un usuario", description = "End Point para cambiar el tipo de usuario (USER, ADMIN, PRODUCER, PRODUCER_VIP); los tokens ya emitidos al usuario pasan a usar el rol nuevo, con Token de administrador", tags = {
+                        "Admin" })
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "204", description = "Rol cambiado exitosamente"),
+                        @ApiResponse(responseCode = "404", description = "Usuario o tipo de usuario no encontrado")
+        })
+        @PostMapping("/users/role")
+        public ResponseEntity<Void> changeUserRole(@RequestParam String email, @RequestParam String type) {
+                userService.changeUserType(email, type);
+                return ResponseEntity.noContent().build();
+        }
+
+        @Operation(summary = "Borrar publicaciones de un usuario", description = "End Point para borrar todas las publicaciones de un usuario junto con sus votos, devuelve el número de publicaciones borradas, con Token de administrador", tags = {
+                        "Admin" })
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Publicaciones borradas exitosamente"),
+                        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+        })
+        @DeleteMapping("/users/publications")
+        public ResponseEntity<Integer> deleteUserPublications(@RequestParam String email) {
+                User user = userService.findByEmail(email);
+                return ResponseEntity.ok(publicationService.deletePublicationsByAuthor(user.getId()));
+        }
+
+        @Operation(summary = "Importar usuarios", description = "End Point para dar de alta usuarios en bloque desde un CSV (cabecera email,password,name,lastname,address) o un NDJSON (Content-Type application/x-ndjson), devuelve los errores por fila, con Token de administrador", tags = {
+                        "Admin" })
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Importación ejecutada, con los errores por fila"),
+                        @ApiResponse(responseCode = "400", description = "El CSV no tiene la cabecera esperada"),
+                        @ApiResponse(responseCode = "409", description = "Ya hay una importación en curso")
+        })
+        @PostMapping(value = "/users/import", consumes = { "text/csv", "application/x-ndjson", "text/plain" })
+        public ResponseEntity<UserImportService.Report> importUsers(InputStream body,
+                        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) throws IOException {
+                return userImportService.importUsers(body, UserImportService.formatOf(contentType))
+                                .map(ResponseEntity::ok)
+                                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+        }
+
+        @Operation(summary = "Consultar auditoría", description = "End Point para consultar los accesos registrados, del más reciente al más antiguo, filtrando por usuario, endpoint, método y rango de fechas [from, to), paginado con el cursor devuelto en nextCursor, con Token de administrador", tags = {
+                        "Admin" })
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Registros obtenidos exitosamente"),
+                        @ApiResponse(responseCode = "400", description = "Cursor o tamaño de página no válidos")
+        })
+        @GetMapping("/audit")
+        public ResponseEntity<AuditPageDTO> getAuditLog(@RequestParam(required = false) String user,
+                        @RequestParam(required = false) String endpoint,
+                        @RequestParam(required = false) String method,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(required = false) Integer limit) {
+                return ResponseEntity.ok(auditQueryService.query(user, endpoint, method, from, to, cursor, limit));
+        }
+
+}
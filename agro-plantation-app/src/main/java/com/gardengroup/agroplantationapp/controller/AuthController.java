@@ -1,5 +1,6 @@
 package com.gardengroup.agroplantationapp.controller;
 
+import com.gardengroup.agroplantationapp.exception.ServiceBusyException;
 import com.gardengroup.agroplantationapp.model.dto.user.AthAnswerDTO;
 import com.gardengroup.agroplantationapp.model.dto.user.LoginDTO;
 import com.gardengroup.agroplantationapp.model.dto.user.RegisterDTO;
@@ -34,7 +35,8 @@ public class AuthController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Usuario registrado correctamente", content = @Content(schema = @Schema(implementation = User.class))),
             @ApiResponse(responseCode = "409", description = "Conflicto - Este correo electrónico ya está registrado", content = @Content(schema = @Schema(implementation = String.class))),
-            @ApiResponse(responseCode = "501", description = "Error al procesar la solicitud", content = @Content(schema = @Schema(implementation = String.class)))
+            @ApiResponse(responseCode = "501", description = "Error al procesar la solicitud", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "503", description = "Demasiados registros simultáneos", content = @Content(schema = @Schema(implementation = String.class)))
     })
     @PostMapping("/registro")
     public ResponseEntity<?> register(@RequestBody RegisterDTO registerDto) {
@@ -55,13 +57,18 @@ public class AuthController {
             "Auth" })
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Autenticación exitosa", content = @Content(schema = @Schema(implementation = AthAnswerDTO.class))),
-            @ApiResponse(responseCode = "401", description = "No autorizado - Error al autenticar", content = @Content(schema = @Schema(implementation = AthAnswerDTO.class)))
+            @ApiResponse(responseCode = "401", description = "No autorizado - Error al autenticar", content = @Content(schema = @Schema(implementation = AthAnswerDTO.class))),
+            @ApiResponse(responseCode = "503", description = "Demasiados inicios de sesión simultáneos", content = @Content(schema = @Schema(implementation = AthAnswerDTO.class)))
     })
     @PostMapping("/login")
     public ResponseEntity<AthAnswerDTO> login(@RequestBody LoginDTO loginDto) {
         try {
             AthAnswerDTO answer = userService.authenticate(loginDto);
             return new ResponseEntity<>(answer, HttpStatus.OK);
+        } catch (ServiceBusyException e) {
+            log.warn(e.getMessage());
+            return new ResponseEntity<>(new AthAnswerDTO("Servicio ocupado, inténtalo más tarde"),
+                    HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             log.error(e.getMessage());
             
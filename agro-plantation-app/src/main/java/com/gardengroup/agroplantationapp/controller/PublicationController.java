@@ -1,24 +1,35 @@
 package com.gardengroup.agroplantationapp.controller;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import com.gardengroup.agroplantationapp.model.dto.publication.*;
 import com.gardengroup.agroplantationapp.model.entity.Publication;
-import com.gardengroup.agroplantationapp.model.entity.Vote;
+import com.gardengroup.agroplantationapp.model.dto.vote.VoteResultDTO;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.gardengroup.agroplantationapp.service.interfaces.IPublicationService;
+import com.gardengroup.agroplantationapp.service.implementation.LiveScoreService;
 import com.gardengroup.agroplantationapp.service.implementation.SecurityService;
+import com.gardengroup.agroplantationapp.service.implementation.TopPublicationsCache;
+import com.gardengroup.agroplantationapp.service.implementation.TopPublicationsCache.CachedResponse;
+import com.gardengroup.agroplantationapp.utils.FeedOrder;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -33,6 +44,10 @@ public class PublicationController {
         private IPublicationService publicationService;
         @Autowired
         private SecurityService securityService;
+        @Autowired
+        private TopPublicationsCache topPublicationsCache;
+        @Autowired
+        private LiveScoreService liveScoreService;
 
         @Operation(summary = "Guardar publicación", description = "End Point para guardar una nueva publicación en base de datos, con Token", tags = {
                         "Publication" })
@@ -65,17 +80,56 @@ public class PublicationController {
         @Parameter(name = "id", description = "Id de la publicación que se desea obtener")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Publicación obtenida exitosamente"),
+                        @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
                         @ApiResponse(responseCode = "404", description = "Publicación no encontrada"),
                         @ApiResponse(responseCode = "500", description = "Error al obtener la publicación")
         })
         @GetMapping("/{id}")
-        public ResponseEntity<PublicationDTO> getPublication(@PathVariable Long id, HttpServletRequest request) {
+        public ResponseEntity<PublicationDTO> getPublication(@PathVariable Long id, HttpServletRequest request,
+                        WebRequest webRequest) {
                 String email = securityService.getEmail(request);
+
+                // Responder 304 antes de cargar la publicación si el cliente ya tiene esta versión
+                PublicationVersion version = publicationService.getPublicationVersion(id);
+                LocalDateTime modified = (version.getUpdatedAt() != null) ? version.getUpdatedAt()
+                                : version.getPublicationDate();
+                if (webRequest.checkNotModified(publicationService.getPublicationETag(id, version, email),
+                                modified.toInstant(ZoneOffset.UTC).toEpochMilli())) {
+                        return null;
+                }
+
                 PublicationDTO publication = publicationService.getPublication(id, email);
 
                 return new ResponseEntity<>(publication, HttpStatus.OK);
         }
 
+        @Operation(summary = "Votar una publicación", description = "End Point para votar una publicación o retirar el voto si ya estaba votada, con Token. Devuelve el nuevo estado del voto y el score", tags = {
+                        "Publication" })
+        @Parameter(name = "id", description = "Id de la publicación que se desea votar")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Voto actualizado exitosamente"),
+                        @ApiResponse(responseCode = "404", description = "Publicación no encontrada"),
+                        @ApiResponse(responseCode = "500", description = "Error al votar la publicación")
+        })
+        @PostMapping("/vote/{id}")
+        public ResponseEntity<VoteResultDTO> votePublication(@PathVariable Long id, HttpServletRequest request) {
+                String email = securityService.getEmail(request);
+                VoteResultDTO vote = publicationService.votePublication(id, email);
+                return new ResponseEntity<>(vote, HttpStatus.OK);
+        }
+
+        @Operation(summary = "Seguir scores en vivo", description = "End Point Server-Sent Events para recibir los cambios de score de un conjunto de publicaciones, con Token. Envía primero los scores actuales y luego eventos 'scores' con los que cambian", tags = {
+                        "Publication" })
+        @Parameter(name = "ids", description = "Ids de las publicaciones a seguir")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Suscripción abierta"),
+                        @ApiResponse(responseCode = "400", description = "Cantidad de publicaciones no válida")
+        })
+        @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public SseEmitter liveScores(@RequestParam List<Long> ids) {
+                return liveScoreService.subscribe(ids);
+        }
+
         @Operation(summary = "Obtener publicaciones por email", description = "End Point para obtener todas las publicaciones asociadas a un email de usuario", tags = {
                         "Publication" })
         @Parameter(name = "email", description = "Email del usuario que se desea obtener sus publicaciones")
@@ -85,8 +139,8 @@ public class PublicationController {
                         @ApiResponse(responseCode = "500", description = "Error al obtener las publicaciones")
         })
         @GetMapping("/email/{email}")
-        public ResponseEntity<List<Publication>> publicationsByEmail(@PathVariable String email) {
-                List<Publication> publication = publicationService.publicationsByEmail(email);
+        public ResponseEntity<List<PublicationSummary>> publicationsByEmail(@PathVariable String email) {
+                List<PublicationSummary> publication = publicationService.publicationsByEmail(email);
                 return new ResponseEntity<>(publication, HttpStatus.OK);
         }
 
@@ -94,13 +148,60 @@ public class PublicationController {
                         "Publication" })
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Éxito al obtener las publicaciones principales", content = @Content(schema = @Schema(implementation = List.class))),
+                        @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
                         @ApiResponse(responseCode = "404", description = "No hay publicaciones para mostrar"),
                         @ApiResponse(responseCode = "500", description = "Error al procesar la solicitud", content = @Content(schema = @Schema(implementation = String.class)))
         })
         @GetMapping("publications/top")
-        public ResponseEntity<List<Publication>> getTopPublications() {
-                List<Publication> topPublications = publicationService.getTopPublications();
-                return new ResponseEntity<>(topPublications, HttpStatus.OK);
+        public ResponseEntity<byte[]> getTopPublications(
+                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                        WebRequest webRequest) {
+                // Respuesta ya serializada en memoria, con variante gzip si el cliente la acepta
+                CachedResponse topPublications = topPublicationsCache.get(publicationService::getTopPublications);
+                boolean gzip = acceptsGzip(acceptEncoding);
+                if (webRequest.checkNotModified(topPublications.etag(gzip))) {
+                        return null;
+                }
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+                if (gzip) {
+                        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(topPublications.gzip());
+                }
+                return response.body(topPublications.json());
+        }
+
+        // Accept-Encoding con pesos (RFC 9110): gzip se acepta si aparece, o lo cubre
+        // "*", con q mayor que 0
+        private static boolean acceptsGzip(String acceptEncoding) {
+                if (acceptEncoding == null) {
+                        return false;
+                }
+                Double gzipQuality = null;
+                Double anyQuality = null;
+                for (String coding : acceptEncoding.split(",")) {
+                        String[] parts = coding.split(";");
+                        String name = parts[0].trim().toLowerCase(Locale.ROOT);
+                        double quality = 1.0;
+                        for (int i = 1; i < parts.length; i++) {
+                                String parameter = parts[i].trim();
+                                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                                        try {
+                                                quality = Double.parseDouble(parameter.substring(2).trim());
+                                        } catch (NumberFormatException e) {
+                                                quality = 0;
+                                        }
+                                }
+                        }
+                        if (name.equals("gzip") || name.equals("x-gzip")) {
+                                gzipQuality = quality;
+                        } else if (name.equals("*")) {
+                                anyQuality = quality;
+                        }
+                }
+                Double quality = (gzipQuality != null) ? gzipQuality : anyQuality;
+                return quality != null && quality > 0;
         }
 
         @Operation(summary = "Obtener publicaciones por Likes", description = "End Point para obtener las publicaciónes en orden por más likes, además devuelve como maximo 3, el número de paginaciónes siguientes posibles", tags = {
@@ -108,12 +209,18 @@ public class PublicationController {
         @Parameter(name = "pag", description = "Numero de Paginación")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Publicaciones obtenidas exitosamente"),
+                        @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
                         @ApiResponse(responseCode = "404", description = "Publicaciones no encontradas"),
                         @ApiResponse(responseCode = "500", description = "Error al obtener las publicaciones")
         })
         @GetMapping("/like/{pag}")
-        public ResponseEntity<PublicationFilterDTO> getPublicationsByLike(@PathVariable int pag) {
-                PublicationFilterDTO publications = publicationService.getPublicationsByLike(pag);
+        public ResponseEntity<PublicationFilterDTO> getPublicationsByLike(@PathVariable int pag,
+                        HttpServletRequest request, WebRequest webRequest) {
+                String email = securityService.getEmail(request);
+                if (webRequest.checkNotModified(publicationService.getFeedETag(email))) {
+                        return null;
+                }
+                PublicationFilterDTO publications = publicationService.getPublicationsByLike(pag, email);
                 return new ResponseEntity<>(publications, HttpStatus.OK);
         }
 
@@ -122,12 +229,18 @@ public class PublicationController {
         @Parameter(name = "pag", description = "Numero de Paginación")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Publicaciones obtenidas exitosamente"),
+                        @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
                         @ApiResponse(responseCode = "404", description = "Publicaciones no encontradas"),
                         @ApiResponse(responseCode = "500", description = "Error al obtener las publicaciones")
         })
         @GetMapping("/user/{pag}")
-        public ResponseEntity<PublicationFilterDTO> getPublicationsByUser(@PathVariable int pag) {
-                PublicationFilterDTO publications = publicationService.getPublicationsByUser(pag);
+        public ResponseEntity<PublicationFilterDTO> getPublicationsByUser(@PathVariable int pag,
+                        HttpServletRequest request, WebRequest webRequest) {
+                String email = securityService.getEmail(request);
+                if (webRequest.checkNotModified(publicationService.getFeedETag(email))) {
+                        return null;
+                }
+                PublicationFilterDTO publications = publicationService.getPublicationsByUser(pag, email);
                 return new ResponseEntity<>(publications, HttpStatus.OK);
         }
 
@@ -136,26 +249,41 @@ public class PublicationController {
         @Parameter(name = "pag", description = "Numero de Paginación")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Publicaciones obtenidas exitosamente"),
+                        @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
                         @ApiResponse(responseCode = "404", description = "Publicaciones no encontradas"),
                         @ApiResponse(responseCode = "500", description = "Error al obtener las publicaciones")
         })
         @GetMapping("/date/{pag}")
-        public ResponseEntity<PublicationFilterDTO> getPublicationsByDate(@PathVariable int pag) {
-                PublicationFilterDTO publications = publicationService.getPublicationsByDate(pag);
+        public ResponseEntity<PublicationFilterDTO> getPublicationsByDate(@PathVariable int pag,
+                        HttpServletRequest request, WebRequest webRequest) {
+                String email = securityService.getEmail(request);
+                if (webRequest.checkNotModified(publicationService.getFeedETag(email))) {
+                        return null;
+                }
+                PublicationFilterDTO publications = publicationService.getPublicationsByDate(pag, email);
                 return new ResponseEntity<>(publications, HttpStatus.OK);
         }
 
         @Operation(summary = "Obtener publicaciones aleatoriamente", description = "End Point para obtener las publicaciónes de forma aleatoria, además devuelve como maximo 3, el número de paginaciónes siguientes posibles", tags = {
                         "Publication Filters" })
         @Parameter(name = "pag", description = "Numero de Paginación")
+        @Parameter(name = "seed", description = "Semilla devuelta por la primera página, mantiene el mismo orden aleatorio entre páginas")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Publicaciones obtenidas exitosamente"),
+                        @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
                         @ApiResponse(responseCode = "404", description = "Publicaciones no encontradas"),
                         @ApiResponse(responseCode = "500", description = "Error al obtener las publicaciones")
         })
         @GetMapping("/aleatory/{pag}")
-        public ResponseEntity<PublicationFilterDTO> getPublicationsByAleatory(@PathVariable int pag) {
-                PublicationFilterDTO publications = publicationService.getPublicationsByAleatory(pag);
+        public ResponseEntity<PublicationFilterDTO> getPublicationsByAleatory(@PathVariable int pag,
+                        @RequestParam(required = false) Long seed, HttpServletRequest request,
+                        WebRequest webRequest) {
+                String email = securityService.getEmail(request);
+                // Sin semilla cada petición es un recorrido nuevo y no admite 304
+                if (seed != null && webRequest.checkNotModified(publicationService.getFeedETag(email))) {
+                        return null;
+                }
+                PublicationFilterDTO publications = publicationService.getPublicationsByAleatory(pag, seed, email);
                 return new ResponseEntity<>(publications, HttpStatus.OK);
         }
 
@@ -164,13 +292,61 @@ public class PublicationController {
         @Parameter(name = "pag", description = "Numero de Paginación")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Publicaciones obtenidas exitosamente"),
+                        @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
                         @ApiResponse(responseCode = "404", description = "Publicaciones no encontradas"),
                         @ApiResponse(responseCode = "500", description = "Error al obtener las publicaciones")
         })
         @GetMapping("/userQuantity/{pag}")
-        public ResponseEntity<PublicationFilterDTO> getPublicationsByQuantity(@PathVariable int pag) {
-                PublicationFilterDTO publications = publicationService.getPublicationsByQuantity(pag);
+        public ResponseEntity<PublicationFilterDTO> getPublicationsByQuantity(@PathVariable int pag,
+                        HttpServletRequest request, WebRequest webRequest) {
+                String email = securityService.getEmail(request);
+                if (webRequest.checkNotModified(publicationService.getFeedETag(email))) {
+                        return null;
+                }
+                PublicationFilterDTO publications = publicationService.getPublicationsByQuantity(pag, email);
                 return new ResponseEntity<>(publications, HttpStatus.OK);
         }
 
+        @Operation(summary = "Obtener publicaciones en tendencia", description = "End Point para obtener las publicaciónes con más votos recientes, cuyo peso decae con el tiempo, además devuelve como maximo 3, el número de paginaciónes siguientes posibles", tags = {
+                        "Publication Filters" })
+        @Parameter(name = "pag", description = "Numero de Paginación")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Publicaciones obtenidas exitosamente"),
+                        @ApiResponse(responseCode = "404", description = "Publicaciones no encontradas"),
+                        @ApiResponse(responseCode = "500", description = "Error al obtener las publicaciones")
+        })
+        @GetMapping("/trending")
+        public ResponseEntity<PublicationFilterDTO> getTrendingPublications(
+                        @RequestParam(defaultValue = "1") int pag, HttpServletRequest request) {
+                String email = securityService.getEmail(request);
+                PublicationFilterDTO publications = publicationService.getTrendingPublications(pag, email);
+                return new ResponseEntity<>(publications, HttpStatus.OK);
+        }
+
+        @Operation(summary = "Obtener publicaciones por cursor", description = "End Point para recorrer los feeds (like, user, date, userQuantity, aleatory) con un cursor de continuación, devuelve 15 publicaciones y el cursor de la página siguiente", tags = {
+                        "Publication Filters" })
+        @Parameter(name = "order", description = "Orden del feed: like, user, date, userQuantity o aleatory")
+        @Parameter(name = "cursor", description = "Cursor devuelto por la página anterior, vacío para la primera página")
+        @Parameter(name = "seed", description = "Semilla del feed aleatorio para la primera página, opcional")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Publicaciones obtenidas exitosamente"),
+                        @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
+                        @ApiResponse(responseCode = "400", description = "Orden o cursor inválido"),
+                        @ApiResponse(responseCode = "404", description = "Publicaciones no encontradas")
+        })
+        @GetMapping("/feed/{order}")
+        public ResponseEntity<FeedPageDTO> getFeed(@PathVariable String order,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(required = false) Long seed, HttpServletRequest request,
+                        WebRequest webRequest) {
+                String email = securityService.getEmail(request);
+                boolean unseededRandom = FeedOrder.RANDOM.getPath().equalsIgnoreCase(order) && seed == null
+                                && cursor == null;
+                if (!unseededRandom && webRequest.checkNotModified(publicationService.getFeedETag(email))) {
+                        return null;
+                }
+                FeedPageDTO page = publicationService.getFeed(order, cursor, seed, email);
+                return new ResponseEntity<>(page, HttpStatus.OK);
+        }
+
 }
@@ -20,6 +20,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 @Controller
@@ -45,4 +46,16 @@ public class UserController {
                 return ResponseEntity.ok(answer);
         }
 
+        @Operation(summary = "Cerrar sesión", description = "Endpoint para revocar el token de autenticación con el que se hace la petición", tags = {
+                        "User" })
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "204", description = "Token revocado con éxito"),
+                        @ApiResponse(responseCode = "401", description = "No autorizado - Token de autenticación inválido", content = @Content(schema = @Schema(implementation = Void.class)))
+        })
+        @PostMapping("/logout")
+        public ResponseEntity<Void> logout(HttpServletRequest request) {
+                securityService.logout(request);
+                return ResponseEntity.noContent().build();
+        }
+
 }
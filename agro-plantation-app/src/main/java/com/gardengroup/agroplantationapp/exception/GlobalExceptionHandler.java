@@ -38,6 +38,11 @@ public class GlobalExceptionHandler {
         return handleException(e, "UNAUTHORIZED_ACTION", HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServiceBusy(ServiceBusyException e) {
+        return handleException(e, "SERVICE_BUSY", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         log.error("Validation error: {}", ex.getMessage());
@@ -0,0 +1,19 @@
+package com.gardengroup.agroplantationapp.model.dto.audit;
+
+import java.util.List;
+
+import com.gardengroup.agroplantationapp.model.entity.AuditLog;
+
+import lombok.Data;
+
+@Data
+public class AuditPageDTO {
+    private List<AuditLog> entries;
+    // null cuando no hay más registros
+    private String nextCursor;
+
+    public AuditPageDTO(List<AuditLog> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,10 @@
+package com.gardengroup.agroplantationapp.model.dto.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acceso registrado por AuditInterceptor, pendiente de escribir en audit_log.
+ */
+public record AuditRecord(String username, String action, String method, String endpoint, LocalDateTime timestamp,
+        String ip) {
+}
@@ -0,0 +1,18 @@
+package com.gardengroup.agroplantationapp.model.dto.publication;
+
+/**
+ * Proyección con las columnas primitivas que necesita el índice en memoria de
+ * los feeds.
+ */
+public interface FeedIndexRow {
+
+    Long getId();
+
+    Integer getScore();
+
+    Long getPublicationDate();
+
+    Long getAuthorId();
+
+    Integer getRandomKey();
+}
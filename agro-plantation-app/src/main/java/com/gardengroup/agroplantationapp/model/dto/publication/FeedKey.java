@@ -0,0 +1,13 @@
+package com.gardengroup.agroplantationapp.model.dto.publication;
+
+/**
+ * Proyección con la clave de orden de una publicación dentro de un feed.
+ */
+public interface FeedKey {
+
+    Long getPrimaryKey();
+
+    Long getSecondaryKey();
+
+    Long getId();
+}
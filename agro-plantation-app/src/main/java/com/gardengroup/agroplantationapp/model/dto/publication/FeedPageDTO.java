@@ -0,0 +1,17 @@
+package com.gardengroup.agroplantationapp.model.dto.publication;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class FeedPageDTO {
+    private List<PublicationSummary> publications;
+    // null cuando no hay más publicaciones
+    private String nextCursor;
+
+    public FeedPageDTO(List<PublicationSummary> publications, String nextCursor) {
+        this.publications = publications;
+        this.nextCursor = nextCursor;
+    }
+}
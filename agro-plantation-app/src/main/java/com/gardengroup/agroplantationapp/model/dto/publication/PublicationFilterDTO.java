@@ -1,16 +1,20 @@
 package com.gardengroup.agroplantationapp.model.dto.publication;
 
 import java.util.List;
-import com.gardengroup.agroplantationapp.model.entity.Publication;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.Data;
 
 @Data
 public class PublicationFilterDTO {
-    private List<Publication> publications;
+    private List<PublicationSummary> publications;
     private int pagination;
+    // Semilla del feed aleatorio, para pedir las páginas siguientes
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long seed;
 
-    public PublicationFilterDTO(List<Publication> publications, int plantation) {
+    public PublicationFilterDTO(List<PublicationSummary> publications, int plantation) {
         this.publications = publications;
         this.pagination = plantation;
     }
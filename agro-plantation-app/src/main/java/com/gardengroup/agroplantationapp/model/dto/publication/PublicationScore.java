@@ -0,0 +1,11 @@
+package com.gardengroup.agroplantationapp.model.dto.publication;
+
+/**
+ * Proyección con el score actual de una publicación.
+ */
+public interface PublicationScore {
+
+    Long getId();
+
+    Integer getScore();
+}
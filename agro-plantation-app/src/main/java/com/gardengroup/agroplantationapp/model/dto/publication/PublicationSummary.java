@@ -0,0 +1,73 @@
+package com.gardengroup.agroplantationapp.model.dto.publication;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.gardengroup.agroplantationapp.model.entity.Image;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Modelo de lectura de una publicación para los listados. Solo lleva los datos
+ * que muestran las tarjetas del feed, sin plantación, galería de imágenes ni la
+ * entidad completa del autor.
+ */
+@Data
+@NoArgsConstructor
+public class PublicationSummary {
+
+    private Long id;
+
+    private String title;
+
+    private Long authorId;
+
+    private String authorName;
+
+    private String authorLastname;
+
+    private LocalDateTime publicationDate;
+
+    private Boolean visibility;
+
+    private Integer score;
+
+    private String authorizationStatus;
+
+    private Image mainImage;
+
+    // Solo en las respuestas para un usuario; las páginas cacheadas no lo llevan
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean userVote;
+
+    // Se usa para resolver las imágenes principales de una página en un solo lote
+    @JsonIgnore
+    private String mainImageId;
+
+    // Constructor usado por la proyección JPQL de PublicationRepository
+    public PublicationSummary(Long id, String title, Long authorId, String authorName, String authorLastname,
+            LocalDateTime publicationDate, Boolean visibility, Integer score, String authorizationStatus,
+            String mainImageId) {
+        this.id = id;
+        this.title = title;
+        this.authorId = authorId;
+        this.authorName = authorName;
+        this.authorLastname = authorLastname;
+        this.publicationDate = publicationDate;
+        this.visibility = visibility;
+        this.score = score;
+        this.authorizationStatus = authorizationStatus;
+        this.mainImageId = mainImageId;
+    }
+
+    // Copia para un usuario, sin modificar la instancia compartida por las cachés
+    public PublicationSummary withUserVote(Boolean userVote) {
+        PublicationSummary copy = new PublicationSummary(id, title, authorId, authorName, authorLastname,
+                publicationDate, visibility, score, authorizationStatus, mainImageId);
+        copy.setMainImage(mainImage);
+        copy.setUserVote(userVote);
+        return copy;
+    }
+}
@@ -0,0 +1,16 @@
+package com.gardengroup.agroplantationapp.model.dto.publication;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección con la versión de una publicación, usada para responder las
+ * peticiones condicionales sin cargar la entidad.
+ */
+public interface PublicationVersion {
+
+    Long getVersion();
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getPublicationDate();
+}
@@ -0,0 +1,14 @@
+package com.gardengroup.agroplantationapp.model.dto.publication;
+
+/**
+ * Proyección con el score guardado de una publicación y el número real de
+ * votos que tiene, usada por la reconciliación de scores.
+ */
+public interface ScoreDrift {
+
+    Long getId();
+
+    Integer getScore();
+
+    Long getVotes();
+}
@@ -0,0 +1,12 @@
+package com.gardengroup.agroplantationapp.model.dto.publication;
+
+/**
+ * Proyección con el peso de tendencia de una publicación, ya calculado en base
+ * de datos respecto a una época, con la que se hidrata el índice de tendencias.
+ */
+public interface TrendingRow {
+
+    Long getId();
+
+    Double getWeight();
+}
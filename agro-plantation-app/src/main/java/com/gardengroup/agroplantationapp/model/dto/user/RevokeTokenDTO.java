@@ -0,0 +1,12 @@
+package com.gardengroup.agroplantationapp.model.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RevokeTokenDTO {
+    private String token;
+}
@@ -0,0 +1,20 @@
+package com.gardengroup.agroplantationapp.model.dto.vote;
+
+import lombok.Data;
+
+/**
+ * Resultado de alternar el voto de un usuario: si la publicación queda votada
+ * y su score tras el cambio.
+ */
+@Data
+public class VoteResultDTO {
+    private Long publicationId;
+    private boolean voted;
+    private Integer score;
+
+    public VoteResultDTO(Long publicationId, boolean voted, Integer score) {
+        this.publicationId = publicationId;
+        this.voted = voted;
+        this.score = score;
+    }
+}
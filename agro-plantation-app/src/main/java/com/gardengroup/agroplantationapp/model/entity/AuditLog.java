@@ -3,8 +3,13 @@ package com.gardengroup.agroplantationapp.model.entity;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+// Tabla particionada por fecha (ver AuditPartitionManager): la clave primaria en
+// base de datos es (id, timestamp), como exige MySQL al particionar
 @Entity
-@Table(name = "audit_log")
+@Table(name = "audit_log", indexes = {
+        @Index(name = "idx_audit_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_audit_user_timestamp", columnList = "username, timestamp"),
+        @Index(name = "idx_audit_endpoint_timestamp", columnList = "endpoint, timestamp") })
 public class AuditLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,6 +19,7 @@ public class AuditLog {
     private String action;
     private String method;
     private String endpoint;
+    @Column(nullable = false)
     private LocalDateTime timestamp;
     private String ip;
 
@@ -0,0 +1,31 @@
+package com.gardengroup.agroplantationapp.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Agregado con la cantidad de publicaciones de cada autor. Se mantiene en la
+ * misma transacción que crea o borra publicaciones para que el feed
+ * userQuantity no tenga que agrupar toda la tabla publication.
+ */
+@Entity
+@Table(name = "author_stats", indexes = {
+        @Index(name = "idx_author_stats_count", columnList = "publication_count, author_id")
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class AuthorStats {
+
+    @Id
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @Column(name = "publication_count", nullable = false)
+    private Long publicationCount;
+
+}
@@ -3,42 +3,99 @@ package com.gardengroup.agroplantationapp.model.entity;
 import com.gardengroup.agroplantationapp.model.dto.publication.PublicationSaveDTO;
 import com.gardengroup.agroplantationapp.model.dto.publication.PublicationUpdDTO;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_publication_score", columnList = "score, id"),
+        @Index(name = "idx_publication_date", columnList = "publication_date, id"),
+        @Index(name = "idx_publication_author", columnList = "author_id, id"),
+        @Index(name = "idx_publication_random", columnList = "random_key, id")
+})
+// Planes de carga por caso de uso: las asociaciones son LAZY y cada consulta
+// elige el grafo que necesita para resolverse en una sola sentencia
+@NamedEntityGraph(name = Publication.GRAPH_SUMMARY, attributeNodes = {
+        @NamedAttributeNode("author"),
+        @NamedAttributeNode("mainImage"),
+        @NamedAttributeNode("authorizationStatus")
+})
+@NamedEntityGraph(name = Publication.GRAPH_DETAIL, attributeNodes = {
+        @NamedAttributeNode("plantation"),
+        @NamedAttributeNode(value = "author", subgraph = "author"),
+        @NamedAttributeNode("mainImage"),
+        @NamedAttributeNode("images"),
+        @NamedAttributeNode("authorizationStatus")
+}, subgraphs = @NamedSubgraph(name = "author", attributeNodes = @NamedAttributeNode("userType")))
+@NamedEntityGraph(name = Publication.GRAPH_MODERATION, attributeNodes = {
+        @NamedAttributeNode("plantation"),
+        @NamedAttributeNode("author"),
+        @NamedAttributeNode("authorizationStatus")
+})
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Data
 @NoArgsConstructor
 public class Publication {
+
+    public static final String GRAPH_SUMMARY = "Publication.summary";
+    public static final String GRAPH_DETAIL = "Publication.detail";
+    public static final String GRAPH_MODERATION = "Publication.moderation";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     @Column(length = 50, nullable = false)
     private String title;
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Plantation plantation;
-    @ManyToOne()
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User author;
     @Column(columnDefinition = "DATETIME", nullable = false)
     private LocalDateTime publicationDate;
     @Column(columnDefinition = "BOOLEAN DEFAULT 0")
     private Boolean visibility;
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Image mainImage;
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    // Se mantiene la tabla intermedia existente (publication_images)
+    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @JoinTable(name = "publication_images", joinColumns = @JoinColumn(name = "publication_id"), inverseJoinColumns = @JoinColumn(name = "images_id"))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Image> images;
     // private List<Comment> comments; proximamente
     @Column(columnDefinition = "INTEGER DEFAULT 0")
     private Integer score;
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private StateRequest authorizationStatus;
+    // Clave aleatoria precalculada para el feed aleatorio
+    @JsonIgnore
+    private Integer randomKey;
+    // Versión de la publicación, se incrementa al actualizarla o cambiar su score
+    // y de ella se derivan los ETag
+    @Column(columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+    @Column(columnDefinition = "DATETIME")
+    private LocalDateTime updatedAt;
 
     // Actualizar unicamenete la información que no esta ya guardada en la
     // publicación
@@ -56,6 +113,11 @@ public class Publication {
 
     }
 
+    public void touch() {
+        this.version = (this.version != null ? this.version : 0L) + 1;
+        this.updatedAt = LocalDateTime.now().withNano(0);
+    }
+
     public Publication(PublicationSaveDTO publicationDTO) {
         this.title = publicationDTO.getTitle();
         this.plantation = publicationDTO.getPlantation();
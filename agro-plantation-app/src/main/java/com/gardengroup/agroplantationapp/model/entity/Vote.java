@@ -1,5 +1,7 @@
 package com.gardengroup.agroplantationapp.model.entity;
 
+import java.time.LocalDateTime;
+
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -7,7 +9,9 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
-@Table(name = "vote")
+// Un único voto por usuario y publicación: el toggle se apoya en esta clave
+@Table(name = "vote", uniqueConstraints = @UniqueConstraint(name = "uk_vote_user_publication", columnNames = {
+        "user_id", "publication_id" }))
 @Getter
 @Setter
 @ToString
@@ -18,14 +22,22 @@ public class Vote {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "publication_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Publication publication;
 
     @Column(columnDefinition = "BOOLEAN DEFAULT 0")
     private boolean state;
+
+    // Momento del voto, para el decaimiento del feed de tendencias
+    @Column(columnDefinition = "DATETIME")
+    private LocalDateTime createdAt;
 }
@@ -0,0 +1,38 @@
+package com.gardengroup.agroplantationapp.model.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.gardengroup.agroplantationapp.model.entity.AuthorStats;
+
+@Repository
+public interface AuthorStatsRepository extends JpaRepository<AuthorStats, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO author_stats (author_id, publication_count) VALUES (:authorId, 1) "
+            + "ON DUPLICATE KEY UPDATE publication_count = publication_count + 1", nativeQuery = true)
+    void incrementPublications(@Param("authorId") Long authorId);
+
+    @Modifying
+    @Query(value = "DELETE FROM author_stats WHERE author_id = :authorId", nativeQuery = true)
+    void deleteByAuthorId(@Param("authorId") Long authorId);
+
+    @Modifying
+    @Query(value = "INSERT INTO author_stats (author_id, publication_count) "
+            + "SELECT author_id, COUNT(*) FROM publication GROUP BY author_id", nativeQuery = true)
+    int rebuildFromPublications();
+
+    // Autores siguientes al cursor en el orden del feed userQuantity, leídos
+    // directamente del índice (publication_count, author_id)
+    @Query(value = "SELECT * FROM author_stats WHERE publication_count < :count "
+            + "OR (publication_count = :count AND author_id < :authorId) "
+            + "ORDER BY publication_count DESC, author_id DESC LIMIT :limit", nativeQuery = true)
+    List<AuthorStats> seekAuthors(@Param("count") long count, @Param("authorId") long authorId,
+            @Param("limit") int limit);
+
+}
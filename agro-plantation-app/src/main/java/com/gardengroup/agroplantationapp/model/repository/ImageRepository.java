@@ -0,0 +1,10 @@
+package com.gardengroup.agroplantationapp.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.gardengroup.agroplantationapp.model.entity.Image;
+
+@Repository
+public interface ImageRepository extends JpaRepository<Image, String> {
+}
@@ -1,47 +1,175 @@
 package com.gardengroup.agroplantationapp.model.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.gardengroup.agroplantationapp.model.dto.publication.FeedIndexRow;
+import com.gardengroup.agroplantationapp.model.dto.publication.FeedKey;
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationScore;
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationSummary;
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationVersion;
+import com.gardengroup.agroplantationapp.model.dto.publication.ScoreDrift;
+import com.gardengroup.agroplantationapp.model.dto.publication.TrendingRow;
 import com.gardengroup.agroplantationapp.model.entity.Publication;
 
-import jakarta.transaction.Transactional;
-
 @Repository
 public interface PublicationRepository extends JpaRepository<Publication, Long> {
 
+    @EntityGraph(Publication.GRAPH_SUMMARY)
     List<Publication> findByAuthorId(Long id);
 
-    List<Publication> findTop6ByOrderByScoreDesc();
+    @EntityGraph(Publication.GRAPH_DETAIL)
+    @Query("SELECT p FROM Publication p WHERE p.id = :id")
+    Optional<Publication> findDetailById(@Param("id") Long id);
+
+    @EntityGraph(Publication.GRAPH_MODERATION)
+    @Query("SELECT p FROM Publication p WHERE p.id = :id")
+    Optional<Publication> findModerationById(@Param("id") Long id);
+
+    @Query("SELECT p.id AS id, p.score AS score FROM Publication p WHERE p.id IN :ids")
+    List<PublicationScore> findScoresByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Publicaciones del rango [from, to) cuyo score no coincide con sus votos
+    @Query(value = "SELECT p.id AS id, p.score AS score, COUNT(v.id) AS votes FROM publication p "
+            + "LEFT JOIN vote v ON v.publication_id = p.id WHERE p.id >= :from AND p.id < :to "
+            + "GROUP BY p.id, p.score HAVING COALESCE(p.score, 0) <> COUNT(v.id)", nativeQuery = true)
+    List<ScoreDrift> findScoreDrift(@Param("from") long from, @Param("to") long to);
+
+    @Query(value = "SELECT COALESCE(MIN(id), 0) FROM publication", nativeQuery = true)
+    long findMinId();
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM publication", nativeQuery = true)
+    long findMaxId();
+
+    @Query(value = "SELECT score FROM publication WHERE id = :id", nativeQuery = true)
+    Optional<Integer> findScoreById(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE publication SET score = score + :delta, version = COALESCE(version, 0) + 1, "
+            + "updated_at = :updatedAt WHERE id = :id", nativeQuery = true)
+    int addScore(@Param("id") Long id, @Param("delta") int delta, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT p.version AS version, p.updatedAt AS updatedAt, p.publicationDate AS publicationDate "
+            + "FROM Publication p WHERE p.id = :id")
+    Optional<PublicationVersion> findVersionById(@Param("id") Long id);
+
+    String SUMMARY_SELECT = "SELECT new com.gardengroup.agroplantationapp.model.dto.publication.PublicationSummary("
+            + "p.id, p.title, a.id, a.name, a.lastname, p.publicationDate, p.visibility, p.score, s.state, "
+            + "p.mainImage.id) FROM Publication p JOIN p.author a JOIN p.authorizationStatus s ";
+
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<PublicationSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT p FROM Publication p WHERE p.author.email = :email ")
-    List<Publication> publicationsByEmail(@Param("email") String email);
+    @Query(SUMMARY_SELECT + "WHERE a.email = :email ORDER BY p.id")
+    List<PublicationSummary> summariesByEmail(@Param("email") String email);
 
+    @EntityGraph(Publication.GRAPH_MODERATION)
     @Query("SELECT p FROM Publication p WHERE p.authorizationStatus.state = 'PENDING'")
     List<Publication> findAllPendingPublications();
 
-    @Query(value = "SELECT * FROM publication ORDER BY score DESC LIMIT 10", nativeQuery = true)
-    List<Publication> publicationsBylike(@Param("pagination") int pagination, @Param("pagTop") int pagTop);
+    // Consultas seek de los feeds: devuelven solo las claves de orden a partir del
+    // cursor recibido, recorriendo los índices (clave, id) sin OFFSET
 
-    @Query(value = "SELECT * FROM publication ORDER BY author_id DESC LIMIT 10", nativeQuery = true)
-    List<Publication> publicationsByUser(@Param("pagination") int pagination, @Param("pagTop") int pagTop);
+    @Query(value = "SELECT score AS primaryKey, 0 AS secondaryKey, id AS id FROM publication "
+            + "WHERE score < :primaryKey OR (score = :primaryKey AND id < :id) "
+            + "ORDER BY score DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<FeedKey> seekByLike(@Param("primaryKey") long primaryKey, @Param("id") long id,
+            @Param("limit") int limit);
 
-    @Query(value = "SELECT * FROM publication ORDER BY publication_date DESC LIMIT 10", nativeQuery = true)
-    List<Publication> publicationsByDate(@Param("pagination") int pagination, @Param("pagTop") int pagTop);
+    @Query(value = "SELECT author_id AS primaryKey, 0 AS secondaryKey, id AS id FROM publication "
+            + "WHERE author_id < :primaryKey OR (author_id = :primaryKey AND id < :id) "
+            + "ORDER BY author_id DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<FeedKey> seekByUser(@Param("primaryKey") long primaryKey, @Param("id") long id,
+            @Param("limit") int limit);
 
-    @Query(value = "SELECT * FROM publication ORDER BY RAND() LIMIT 10", nativeQuery = true)
-    List<Publication> publicationsByAleatory(@Param("pagination") int pagination, @Param("pagTop") int pagTop);
+    @Query(value = "SELECT TIMESTAMPDIFF(SECOND, '1970-01-01', publication_date) AS primaryKey, 0 AS secondaryKey, "
+            + "id AS id FROM publication "
+            + "WHERE publication_date < TIMESTAMPADD(SECOND, :primaryKey, '1970-01-01') "
+            + "OR (publication_date = TIMESTAMPADD(SECOND, :primaryKey, '1970-01-01') AND id < :id) "
+            + "ORDER BY publication_date DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<FeedKey> seekByDate(@Param("primaryKey") long primaryKey, @Param("id") long id,
+            @Param("limit") int limit);
 
-    @Query(value = "SELECT * FROM publication GROUP BY author_id ORDER BY COUNT(*) DESC, author_id LIMIT 10", nativeQuery = true)
-    List<Publication> publicationsByQuantity(@Param("pagination") int pagination, @Param("pagTop") int pagTop);
+    // userQuantity: publicaciones de un autor por el índice (author_id, id); el
+    // recorrido de autores sobre author_stats lo hace AuthorStatsService
+    @Query(value = "SELECT :count AS primaryKey, author_id AS secondaryKey, id AS id FROM publication "
+            + "WHERE author_id = :authorId AND id < :id ORDER BY id DESC LIMIT :limit", nativeQuery = true)
+    List<FeedKey> seekByAuthor(@Param("authorId") long authorId, @Param("count") long count,
+            @Param("id") long id, @Param("limit") int limit);
+
+    // Claves en una posición concreta de cada orden, para apoyar las paginaciones
+    // por número sobre los cursores. Solo leen columnas del índice.
+
+    @Query(value = "SELECT score AS primaryKey, 0 AS secondaryKey, id AS id FROM publication "
+            + "ORDER BY score DESC, id DESC LIMIT 1 OFFSET :position", nativeQuery = true)
+    Optional<FeedKey> keyAtByLike(@Param("position") int position);
+
+    @Query(value = "SELECT author_id AS primaryKey, 0 AS secondaryKey, id AS id FROM publication "
+            + "ORDER BY author_id DESC, id DESC LIMIT 1 OFFSET :position", nativeQuery = true)
+    Optional<FeedKey> keyAtByUser(@Param("position") int position);
+
+    @Query(value = "SELECT TIMESTAMPDIFF(SECOND, '1970-01-01', publication_date) AS primaryKey, 0 AS secondaryKey, "
+            + "id AS id FROM publication ORDER BY publication_date DESC, id DESC LIMIT 1 OFFSET :position",
+            nativeQuery = true)
+    Optional<FeedKey> keyAtByDate(@Param("position") int position);
+
+    @Query(value = "SELECT :count AS primaryKey, author_id AS secondaryKey, id AS id FROM publication "
+            + "WHERE author_id = :authorId ORDER BY id DESC LIMIT 1 OFFSET :position", nativeQuery = true)
+    Optional<FeedKey> keyAtByAuthor(@Param("authorId") long authorId, @Param("count") long count,
+            @Param("position") int position);
+
+    // Feed aleatorio: recorrido ascendente de random_key dentro de un rango
+    // [lower, upper), la semilla se devuelve como clave secundaria del cursor
+
+    @Query(value = "SELECT random_key AS primaryKey, :seed AS secondaryKey, id AS id FROM publication "
+            + "WHERE random_key >= :lower AND random_key < :upper "
+            + "AND (random_key > :primaryKey OR (random_key = :primaryKey AND id > :id)) "
+            + "ORDER BY random_key, id LIMIT :limit", nativeQuery = true)
+    List<FeedKey> seekByRandom(@Param("primaryKey") long primaryKey, @Param("id") long id,
+            @Param("lower") long lower, @Param("upper") long upper, @Param("seed") long seed,
+            @Param("limit") int limit);
+
+    @Query(value = "SELECT random_key AS primaryKey, :seed AS secondaryKey, id AS id FROM publication "
+            + "WHERE random_key >= :lower AND random_key < :upper "
+            + "ORDER BY random_key, id LIMIT 1 OFFSET :position", nativeQuery = true)
+    Optional<FeedKey> keyAtByRandom(@Param("lower") long lower, @Param("upper") long upper,
+            @Param("seed") long seed, @Param("position") int position);
+
+    @Query(value = "SELECT COUNT(*) FROM publication WHERE random_key >= :lower AND random_key < :upper",
+            nativeQuery = true)
+    long countByRandomRange(@Param("lower") long lower, @Param("upper") long upper);
 
     @Modifying
-    @Transactional
-    @Query(value = "DELETE FROM publication WHERE author_id = :id", nativeQuery = true)
-    void deleteAllByAuthorId(@Param("id") Long id);
+    @Query(value = "UPDATE publication SET random_key = FLOOR(RAND() * :bound) WHERE random_key IS NULL",
+            nativeQuery = true)
+    int assignMissingRandomKeys(@Param("bound") long bound);
+
+    // Peso de tendencia por publicación respecto a la época :epoch (segundos): la
+    // publicación cuenta como un voto en su fecha y cada voto decae desde el
+    // momento en que se emitió (los votos sin fecha, desde la publicación)
+    @Query(value = "SELECT p.id AS id, "
+            + "EXP(:lambda * (TIMESTAMPDIFF(SECOND, '1970-01-01', p.publication_date) - :epoch)) + COALESCE(SUM("
+            + "EXP(:lambda * (TIMESTAMPDIFF(SECOND, '1970-01-01', COALESCE(v.created_at, p.publication_date)) "
+            + "- :epoch))), 0) AS weight "
+            + "FROM publication p LEFT JOIN vote v ON v.publication_id = p.id "
+            + "GROUP BY p.id, p.publication_date", nativeQuery = true)
+    List<TrendingRow> findTrendingRows(@Param("lambda") double lambda, @Param("epoch") long epoch);
+
+    // Columnas con las que se hidrata el índice en memoria de los feeds
+    @Query(value = "SELECT id AS id, score AS score, "
+            + "TIMESTAMPDIFF(SECOND, '1970-01-01', publication_date) AS publicationDate, author_id AS authorId, "
+            + "random_key AS randomKey FROM publication", nativeQuery = true)
+    List<FeedIndexRow> findFeedIndexRows();
+
+    // Los borrados de publicaciones se hacen solo en PublicationService, que
+    // mantiene author_stats, el índice de feeds y las cachés
 }
@@ -1,18 +1,39 @@
 package com.gardengroup.agroplantationapp.model.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.gardengroup.agroplantationapp.model.entity.Vote;
 
 @Repository
 public interface VoteRepository extends JpaRepository<Vote, Long> {
 
-    Vote findByUserEmailAndPublicationId(String userEmail, Long publicationId);
-
     @Query(value = "SELECT * FROM vote v WHERE user_id = :user AND publication_id = :publicationId", nativeQuery = true)
     public Optional<Vote> findByUserAndPublication(Long user, Long publicationId);
 
+    @Query(value = "SELECT publication_id FROM vote WHERE user_id = :userId AND publication_id IN :publicationIds",
+            nativeQuery = true)
+    List<Long> findVotedAmong(@Param("userId") Long userId,
+            @Param("publicationIds") Collection<Long> publicationIds);
+
+    @Query(value = "SELECT publication_id FROM vote WHERE user_id = :userId", nativeQuery = true)
+    List<Long> findVotedPublicationIds(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM vote WHERE user_id = :userId AND publication_id = :publicationId", nativeQuery = true)
+    int deleteVote(@Param("userId") Long userId, @Param("publicationId") Long publicationId);
+
+    // IGNORE: si otra petición ya insertó el voto (clave única) no se inserta nada
+    // y devuelve 0 filas
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO vote (user_id, publication_id, state, created_at) "
+            + "VALUES (:userId, :publicationId, TRUE, NOW())", nativeQuery = true)
+    int insertVote(@Param("userId") Long userId, @Param("publicationId") Long publicationId);
+
 }
@@ -0,0 +1,84 @@
+package com.gardengroup.agroplantationapp.security;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Las autoridades de un usuario viajan en su token, así que un cambio de rol no
+ * se vería hasta el siguiente login. Tras llamar a roleChanged, los tokens del
+ * usuario emitidos antes del cambio vuelven a consultar sus autoridades, que se
+ * guardan aquí durante security.authority-recheck.ttl-ms para no consultar la
+ * base de datos en cada petición. También se usa para los tokens antiguos que
+ * no traen los claims.
+ */
+@Component
+public class AuthorityRecheckCache {
+
+    private record Cached(Collection<? extends GrantedAuthority> authorities, long expiresAt) {
+    }
+
+    private final long ttlMs;
+    private final int maxEntries;
+
+    // Momento del último cambio de rol de cada usuario, hasta que caducan los
+    // tokens emitidos antes de él
+    private final Map<String, Long> changedAt = new LinkedHashMap<>();
+    private final Map<String, Cached> entries;
+
+    public AuthorityRecheckCache(@Value("${security.authority-recheck.ttl-ms:60000}") long ttlMs,
+            @Value("${security.authority-recheck.max-entries:1024}") int maxEntries) {
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > AuthorityRecheckCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized void roleChanged(String email) {
+        long now = System.currentTimeMillis();
+        changedAt.remove(email);
+        changedAt.put(email, now);
+        entries.remove(email);
+        changedAt.values().removeIf(at -> at < now - ConstantSecurity.JWT_EXPIRATION_TOKEN);
+    }
+
+    public synchronized boolean needsRecheck(JwtPrincipal principal, long issuedAt) {
+        if (!principal.hasClaims()) {
+            return true;
+        }
+        Long changed = changedAt.get(principal.email());
+        return changed != null && issuedAt <= changed;
+    }
+
+    public Collection<? extends GrantedAuthority> authorities(String email,
+            Supplier<Collection<? extends GrantedAuthority>> loader) {
+        long now = System.currentTimeMillis();
+        Long changedBefore;
+        synchronized (this) {
+            Cached cached = entries.get(email);
+            if (cached != null && cached.expiresAt() > now) {
+                return cached.authorities();
+            }
+            changedBefore = changedAt.get(email);
+        }
+
+        Collection<? extends GrantedAuthority> authorities = loader.get();
+        synchronized (this) {
+            // No se guarda si el rol cambió mientras se consultaba
+            if (Objects.equals(changedBefore, changedAt.get(email))) {
+                entries.put(email, new Cached(authorities, now + ttlMs));
+            }
+        }
+        return authorities;
+    }
+}
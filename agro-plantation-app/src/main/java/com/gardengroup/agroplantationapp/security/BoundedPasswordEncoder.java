@@ -0,0 +1,172 @@
+package com.gardengroup.agroplantationapp.security;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.gardengroup.agroplantationapp.exception.ServiceBusyException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PasswordEncoder BCrypt que calcula los hashes en un pool propio y acotado
+ * (security.bcrypt.threads y security.bcrypt.queue), fuera de los hilos de
+ * Tomcat: una ráfaga de logins o registros ocupa como mucho esos hilos y, si la
+ * cola se llena, se rechaza con ServiceBusyException en lugar de quitar CPU al
+ * resto de peticiones.
+ *
+ * El coste se fija con security.bcrypt.strength o, si vale 0, se calibra la
+ * primera vez para que un hash tarde alrededor de security.bcrypt.target-ms y
+ * se guarda en security.bcrypt.calibration-file, así no cambia entre
+ * arranques. Las contraseñas guardadas con un coste menor se vuelven a cifrar
+ * al hacer login (upgradeEncoding junto con
+ * CustomUsersDetailsService.updatePassword); las de coste mayor se dejan.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    // Nunca por debajo del coste por defecto de BCryptPasswordEncoder
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor hashers;
+
+    public BoundedPasswordEncoder(int strength, long targetMs, Path calibrationFile, int threads, int queueSize,
+            long timeoutMs) {
+        this.strength = (strength > 0) ? strength : calibratedStrength(targetMs, calibrationFile);
+        this.delegate = new BCryptPasswordEncoder(this.strength);
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> new Thread(runnable, "password-hash-" + threadCount.incrementAndGet()));
+
+        log.info("Password hashing with BCrypt cost {} on {} threads", this.strength, threads);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Solo se vuelve a cifrar para subir el coste, nunca para bajarlo
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = hashers.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException("Too many password operations in progress");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceBusyException("Password operation timed out");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Password operation interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Coste guardado por una calibración anterior o, si no hay, uno calibrado
+    // ahora que se guarda para los siguientes arranques
+    private static int calibratedStrength(long targetMs, Path calibrationFile) {
+        if (calibrationFile != null && Files.isRegularFile(calibrationFile)) {
+            try {
+                int cost = Integer.parseInt(Files.readString(calibrationFile).trim());
+                if (cost >= MIN_STRENGTH && cost <= MAX_STRENGTH) {
+                    return cost;
+                }
+                log.warn("Ignoring BCrypt cost {} in {}", cost, calibrationFile);
+            } catch (IOException | NumberFormatException e) {
+                log.warn("Could not read BCrypt cost from {}: {}", calibrationFile, e.getMessage());
+            }
+        }
+
+        int cost = calibrate(targetMs);
+        if (calibrationFile != null) {
+            try {
+                Path parent = calibrationFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.writeString(calibrationFile, Integer.toString(cost));
+            } catch (IOException e) {
+                log.warn("Could not save BCrypt cost to {}: {}", calibrationFile, e.getMessage());
+            }
+        }
+        return cost;
+    }
+
+    // Mayor coste cuyo hash no supera el tiempo objetivo en esta máquina; cada
+    // punto de coste duplica el tiempo
+    private static int calibrate(long targetMs) {
+        // Primera vuelta para calentar la JIT
+        measure(MIN_STRENGTH);
+        int cost = MIN_STRENGTH;
+        long elapsed = measure(cost);
+        while (cost < MAX_STRENGTH && elapsed * 2 <= targetMs) {
+            cost++;
+            elapsed = measure(cost);
+        }
+        log.info("BCrypt cost calibrated to {} ({} ms per hash, target {} ms)", cost, elapsed, targetMs);
+        return cost;
+    }
+
+    private static long measure(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Override
+    public void destroy() {
+        hashers.shutdownNow();
+    }
+}
@@ -4,5 +4,7 @@ public class ConstantSecurity {
 
     public static final long JWT_EXPIRATION_TOKEN = 15 * 24 * 60 * 60 * 1000L;
     public static final String JWT_SIGNATURE = "signature";
+    // Atributo de la petición con el JwtPrincipal ya validado por el filtro
+    public static final String JWT_PRINCIPAL_ATTRIBUTE = "jwtPrincipal";
 
 }
@@ -10,16 +10,20 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import jakarta.transaction.Transactional;
+
+
 import java.util.Collection;
 import java.util.Collections;
 
 
 @Service//ya que se va necesitar trabajar con la base de datos
-public class CustomUsersDetailsService implements UserDetailsService {
+public class CustomUsersDetailsService implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     private UserRepository userRepository;
     // Convierte un UserType en una colección de autoridades GrantedAuthority
@@ -50,14 +54,26 @@ public class CustomUsersDetailsService implements UserDetailsService {
         }
 
         // Crea y retorna una instancia de UserDetails con la información del usuario y sus autoridades
-        return new org.springframework.security.core.userdetails.User(
+        return new AuthenticatedUser(
+                user.getId(),
                 user.getEmail(),
                 user.getPassword(),
                 mapToAuthority(user.getUserType())
         );
     }
 
+    // Llamado por el AuthenticationManager tras un login correcto cuando el coste
+    // BCrypt de la contraseña guardada no es el actual
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.updatePassword(userDetails.getUsername(), newPassword);
 
-
-
+        return new AuthenticatedUser(
+                (userDetails instanceof AuthenticatedUser user) ? user.getId() : null,
+                userDetails.getUsername(),
+                newPassword,
+                userDetails.getAuthorities()
+        );
+    }
 }
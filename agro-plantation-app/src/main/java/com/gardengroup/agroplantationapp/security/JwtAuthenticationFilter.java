@@ -10,7 +10,6 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -26,6 +25,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private AuthorityRecheckCache authorityRecheckCache;
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
@@ -34,24 +36,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = getRequestToken(request);
 
         try {
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String email = jwtTokenProvider.getJwtUser(token);
-
-                UserDetails userDetails = customUsersDetailsService.loadUserByUsername(email);
-
-                if (userDetails != null) {
-                    Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
-
-                    // Puedes verificar si el usuario tiene las autoridades necesarias aquí
-                    // authorities.contains(new SimpleGrantedAuthority("ROLE_USER"))
+            if (StringUtils.hasText(token)) {
+                // El token se valida una vez (o se toma de la caché de tokens validados) y
+                // la autenticación se construye con sus claims
+                VerifiedToken verified = jwtTokenProvider.verify(token);
+                if (jwtTokenProvider.isRevoked(token, verified)) {
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revocado");
+                    return;
+                }
+                JwtPrincipal principal = verified.principal();
+
+                Collection<? extends GrantedAuthority> authorities = principal.authorities();
+                // Solo tras un cambio de rol o con tokens sin claims se consultan las
+                // autoridades, y quedan cacheadas un tiempo
+                if (authorityRecheckCache.needsRecheck(principal, verified.issuedAt())) {
+                    authorities = authorityRecheckCache.authorities(principal.email(),
+                            () -> customUsersDetailsService.loadUserByUsername(principal.email()).getAuthorities());
+                }
 
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, authorities);
 
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                // Controladores y servicios leen el usuario de aquí sin volver a parsear el token
+                request.setAttribute(ConstantSecurity.JWT_PRINCIPAL_ATTRIBUTE, principal);
             }
         } catch (Exception e) {
             // Manejar errores de validación de token, por ejemplo, token expirado
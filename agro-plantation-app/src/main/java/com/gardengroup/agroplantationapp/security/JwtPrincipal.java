@@ -0,0 +1,27 @@
+package com.gardengroup.agroplantationapp.security;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+// Usuario autenticado tal como viene en los claims del token
+public record JwtPrincipal(String email, Long userId, List<String> roles) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public Collection<? extends GrantedAuthority> authorities() {
+        return roles.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+    }
+
+    // Los tokens emitidos antes de incluir id y roles no los traen
+    public boolean hasClaims() {
+        return userId != null && !roles.isEmpty();
+    }
+}
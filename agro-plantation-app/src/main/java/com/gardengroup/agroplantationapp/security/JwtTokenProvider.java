@@ -1,17 +1,33 @@
 package com.gardengroup.agroplantationapp.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.gardengroup.agroplantationapp.utils.Constants;
 
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLES = "roles";
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
+
     // Método para generar un token JWT con información de autenticación
     public String generateToken(Authentication authentication) {
         // Obtener el nombre de usuario (en este caso, el email) del objeto Authentication
@@ -23,9 +39,17 @@ public class JwtTokenProvider {
         // Calcular la fecha de expiración del token sumando el tiempo de expiración configurado
         Date expirationDate = new Date(now.getTime() + ConstantSecurity.JWT_EXPIRATION_TOKEN);
 
+        // Id y roles del usuario, para autenticar las peticiones sin consultar la base de datos
+        Long userId = (authentication.getPrincipal() instanceof AuthenticatedUser user) ? user.getId() : null;
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+
         // Construir el token JWT con el Builder de Jwts
         String token = Jwts.builder()
                 .setSubject(email) // Establecer el sujeto del token como el email del usuario
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_ROLES, roles)
                 .setIssuedAt(now) // Establecer la fecha de emisión del token
                 .setExpiration(expirationDate) // Establecer la fecha de expiración del token
                 .signWith(SignatureAlgorithm.HS512, ConstantSecurity.JWT_SIGNATURE) // Firmar el token con el algoritmo y clave secreta
@@ -35,31 +59,53 @@ public class JwtTokenProvider {
         return token;
     }
 
-    // Método para obtener el nombre de usuario (email) a partir de un token JWT
-    public String getJwtUser(String token) {
-        // Utilizar el parser de Jwts para obtener los claims (reclamaciones) del token
-        Claims claims = Jwts.parser()
-                .setSigningKey(ConstantSecurity.JWT_SIGNATURE) // Establecer la clave secreta para validar la firma
-                .parseClaimsJws(token) // Realizar el parsing del token
-                .getBody(); // Obtener el cuerpo del token, que contiene los claims
-
-        // Devolver el nombre de usuario (email) obtenido de los claims
-        return claims.getSubject();
+    // Valida el token (o lo toma de la caché de tokens ya validados) y devuelve su
+    // usuario; lanza la excepción de jjwt si no es válido
+    public VerifiedToken verify(String token) {
+        if (!StringUtils.hasText(token)) {
+            throw new AuthenticationCredentialsNotFoundException("JWT ha expirado o está incorrecto");
+        }
+        return verifiedTokenCache.get(token, this::parse);
     }
 
-    // Método para validar un token JWT
-    public Boolean validateToken(String token) {
+    // Revoca un token válido hasta su expiración; un token ya inválido no se revoca
+    public void revoke(String token) {
+        VerifiedToken verified;
         try {
-            // Intentar realizar el parsing del token, si tiene una firma válida
-            Jwts.parser().setSigningKey(ConstantSecurity.JWT_SIGNATURE).parseClaimsJws(token);
-
-            // Si el parsing es exitoso, el token es válido
-            return true;
-        } catch (Exception e) {
-            // Agregar logs para ver más detalles sobre la excepción
-            System.out.println("Error al validar el token: " + e.getMessage());
-            // Si ocurre una excepción durante el parsing, el token no es válido
-            throw new AuthenticationCredentialsNotFoundException("JWT ha expirado o está incorrecto");
+            verified = verify(token);
+        } catch (JwtException | AuthenticationCredentialsNotFoundException e) {
+            throw new IllegalArgumentException(Constants.TOKEN_INVALID);
         }
+        tokenRevocationStore.revoke(token, verified.expiresAt());
+        verifiedTokenCache.invalidate(token);
+    }
+
+    public boolean isRevoked(String token, VerifiedToken verified) {
+        return tokenRevocationStore.isRevoked(token, verified);
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = getClaims(token);
+        long issuedAt = (claims.getIssuedAt() != null) ? claims.getIssuedAt().getTime() : 0L;
+        long expiresAt = (claims.getExpiration() != null) ? claims.getExpiration().getTime()
+                : System.currentTimeMillis() + ConstantSecurity.JWT_EXPIRATION_TOKEN;
+        return new VerifiedToken(getPrincipal(claims), issuedAt, expiresAt);
+    }
+
+    // Método para obtener los claims de un token JWT validando su firma y expiración
+    public Claims getClaims(String token) {
+        return Jwts.parser()
+                .setSigningKey(ConstantSecurity.JWT_SIGNATURE)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    // Usuario autenticado a partir de los claims ya validados
+    public JwtPrincipal getPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+
+        return new JwtPrincipal(claims.getSubject(), (userId != null) ? userId.longValue() : null,
+                (roles != null) ? roles.stream().map(String::valueOf).collect(Collectors.toList()) : List.of());
     }
 }
@@ -0,0 +1,75 @@
+package com.gardengroup.agroplantationapp.security;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limita las peticiones por ruta según la primera política que coincide (en el
+ * orden en que se declaran en SecurityConfig). Va detrás de
+ * JwtAuthenticationFilter para poder limitar por usuario. Las peticiones que
+ * superan el límite reciben 429 con Retry-After.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final List<RateLimitPolicy> policies;
+
+    public RateLimitFilter(RateLimiter rateLimiter, List<RateLimitPolicy> policies) {
+        this.rateLimiter = rateLimiter;
+        this.policies = policies;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        for (RateLimitPolicy policy : policies) {
+            if (!policy.matcher().matches(request)) {
+                continue;
+            }
+
+            long waitNanos = rateLimiter.tryAcquire(policy, client(policy, request));
+            if (waitNanos > 0) {
+                reject(response, waitNanos);
+                return;
+            }
+            break;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    // La IP es la de la conexión; detrás de un proxy hay que activar
+    // server.forward-headers-strategy para que sea la del cliente
+    private static String client(RateLimitPolicy policy, HttpServletRequest request) {
+        if (policy.keyType() == RateLimitPolicy.KeyType.USER
+                && request.getAttribute(ConstantSecurity.JWT_PRINCIPAL_ATTRIBUTE) instanceof JwtPrincipal principal) {
+            return "user:" + principal.email();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Se escribe la respuesta directamente: con sendError el despacho a /error
+    // pasaría otra vez por la seguridad y podría acabar en 401
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"errorCode\":\"TOO_MANY_REQUESTS\",\"message\":\"Demasiadas peticiones, "
+                + "inténtalo de nuevo en " + retryAfter + " s\"}");
+    }
+}
@@ -0,0 +1,48 @@
+package com.gardengroup.agroplantationapp.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * Límite de peticiones de una ruta: un bucket de capacity peticiones por
+ * cliente que se rellena entero en periodSeconds. El cliente es la IP o, en
+ * las políticas por usuario, el email del token (la IP si no hay token).
+ */
+public record RateLimitPolicy(String name, RequestMatcher matcher, KeyType keyType, int capacity,
+        long intervalNanos) {
+
+    public enum KeyType {
+        IP, USER
+    }
+
+    // spec con el formato "capacidad/segundos", por ejemplo "10/60"; null si está vacío
+    public static RateLimitPolicy of(String name, HttpMethod method, String pattern, KeyType keyType, String spec) {
+        if (!StringUtils.hasText(spec)) {
+            return null;
+        }
+
+        String[] parts = spec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid rate limit for " + name + ": " + spec);
+        }
+        int capacity = Integer.parseInt(parts[0].trim());
+        long periodSeconds = Long.parseLong(parts[1].trim());
+        if (capacity <= 0 || periodSeconds <= 0) {
+            throw new IllegalArgumentException("Invalid rate limit for " + name + ": " + spec);
+        }
+
+        RequestMatcher matcher = (method != null) ? new AntPathRequestMatcher(pattern, method.name())
+                : new AntPathRequestMatcher(pattern);
+        return new RateLimitPolicy(name, matcher, keyType, capacity,
+                TimeUnit.SECONDS.toNanos(periodSeconds) / capacity);
+    }
+
+    // Margen que se puede adelantar un cliente: el tamaño de la ráfaga menos una petición
+    public long toleranceNanos() {
+        return intervalNanos * (capacity - 1);
+    }
+}
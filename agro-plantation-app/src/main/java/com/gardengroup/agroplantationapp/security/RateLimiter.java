@@ -0,0 +1,106 @@
+package com.gardengroup.agroplantationapp.security;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tabla de buckets de RateLimitFilter. Cada bucket es un único AtomicLong con
+ * el instante teórico en que el bucket vuelve a estar lleno (el token bucket
+ * expresado como GCRA), así que consumir es un compareAndSet sin locks. La
+ * tabla está repartida en STRIPES mapas, acotada en total por
+ * security.rate-limit.max-entries, y un barrido periódico quita los buckets ya
+ * llenos, que equivalen a no tener entrada.
+ */
+@Component
+public class RateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final List<Map<String, AtomicLong>> stripes;
+    private final int maxPerStripe;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter evicted;
+
+    public RateLimiter(MeterRegistry meterRegistry,
+            @Value("${security.rate-limit.max-entries:100000}") int maxEntries) {
+        this.meterRegistry = meterRegistry;
+        this.maxPerStripe = Math.max(1, maxEntries / STRIPES);
+        this.stripes = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new ConcurrentHashMap<>());
+        }
+
+        this.evicted = meterRegistry.counter("rate-limit.evicted");
+        Gauge.builder("rate-limit.buckets", this, RateLimiter::size).register(meterRegistry);
+    }
+
+    // Consume una petición del bucket del cliente; devuelve 0 si se permite o los
+    // nanosegundos que faltan para que se permita
+    public long tryAcquire(RateLimitPolicy policy, String client) {
+        String key = policy.name() + '|' + client;
+        AtomicLong bucket = bucket(key, System.nanoTime());
+
+        while (true) {
+            long now = System.nanoTime();
+            long full = bucket.get();
+            long start = (full - now > 0) ? full : now;
+            long wait = start - now - policy.toleranceNanos();
+            if (wait > 0) {
+                meterRegistry.counter("rate-limit.rejected", "policy", policy.name()).increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(full, start + policy.intervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.rate-limit.sweep-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        for (Map<String, AtomicLong> stripe : stripes) {
+            stripe.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        Map<String, AtomicLong> stripe = stripes.get((key.hashCode() & 0x7fffffff) % STRIPES);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (stripe.size() >= maxPerStripe) {
+            stripe.values().removeIf(idle -> idle.get() - now <= 0);
+            // Sin buckets llenos que quitar se sacrifica uno cualquiera para no crecer
+            Iterator<AtomicLong> iterator = stripe.values().iterator();
+            while (stripe.size() >= maxPerStripe && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evicted.increment();
+            }
+        }
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private double size() {
+        long size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+}
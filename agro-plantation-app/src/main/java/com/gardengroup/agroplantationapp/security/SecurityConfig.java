@@ -1,22 +1,32 @@
 package com.gardengroup.agroplantationapp.security;
 
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.servlet.DispatcherType;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import com.gardengroup.agroplantationapp.security.RateLimitPolicy.KeyType;
+
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
@@ -25,6 +35,20 @@ public class SecurityConfig {
     // Inyección de dependencia para el manejador de autenticación de JWT
     @Autowired
     private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    // Límites de peticiones ("capacidad/segundos"; vacío para desactivar la política)
+    @Value("${security.rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+    @Value("${security.rate-limit.login:10/60}")
+    private String loginRateLimit;
+    @Value("${security.rate-limit.register:5/300}")
+    private String registerRateLimit;
+    @Value("${security.rate-limit.vote:60/60}")
+    private String voteRateLimit;
+    @Value("${security.rate-limit.default:600/60}")
+    private String defaultRateLimit;
 
     // Configuración del AuthenticationManager
     @Bean
@@ -33,11 +57,17 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
-    // Configuración del codificador de contraseñas (BCryptPasswordEncoder)
+    // Configuración del codificador de contraseñas (BCrypt en un pool acotado, ver BoundedPasswordEncoder)
     @Bean
-    PasswordEncoder passwordEncoder() {
-
-        return new BCryptPasswordEncoder();
+    BoundedPasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:0}") int strength,
+            @Value("${security.bcrypt.target-ms:250}") long targetMs,
+            @Value("${security.bcrypt.calibration-file:}") String calibrationFile,
+            @Value("${security.bcrypt.threads:2}") int threads,
+            @Value("${security.bcrypt.queue:64}") int queueSize,
+            @Value("${security.bcrypt.timeout-ms:10000}") long timeoutMs) {
+
+        return new BoundedPasswordEncoder(strength, targetMs,
+                calibrationFile.isBlank() ? null : Path.of(calibrationFile), threads, queueSize, timeoutMs);
     }
 
     // Creación de un filtro personalizado para autenticación basada en JWT
@@ -46,6 +76,21 @@ public class SecurityConfig {
         return new JwtAuthenticationFilter();
     }
 
+    // Filtro de límite de peticiones; no es un bean para que solo se ejecute dentro
+    // de la cadena de seguridad, detrás del filtro JWT
+    private RateLimitFilter rateLimitFilter() {
+        // La primera política que coincide con la petición es la que se aplica
+        List<RateLimitPolicy> policies = Stream.of(
+                RateLimitPolicy.of("login", HttpMethod.POST, "/auth/login", KeyType.IP, loginRateLimit),
+                RateLimitPolicy.of("register", HttpMethod.POST, "/auth/registro", KeyType.IP, registerRateLimit),
+                RateLimitPolicy.of("vote", HttpMethod.POST, "/v1/publication/vote/**", KeyType.USER, voteRateLimit),
+                RateLimitPolicy.of("default", null, "/**", KeyType.USER, defaultRateLimit))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return new RateLimitFilter(rateLimiter, policies);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         final CorsConfiguration configuration = new CorsConfiguration();
@@ -80,17 +125,25 @@ public class SecurityConfig {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Despachos asíncronos de respuestas ya autorizadas (SSE)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**", "/publication/publications/top",
+                                "/v1/publication/publications/top",
                                 "/swagger-ui/**", "/swagger-ui.html/**",
                                 "/v3/api-docs/**", "/logs/**")
                         .permitAll()
+                        .requestMatchers("/v1/admin/**").hasAuthority("ADMIN")
                         .requestMatchers("/v1/publication/**", "/v1/user/**")
                         .hasAnyAuthority("USER", "ADMIN", "PRODUCER")
                         .requestMatchers("/configuracion").hasAuthority("ADMINISTRATOR")
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                         .anyRequest().authenticated())
                 .httpBasic(withDefaults());
 
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        if (rateLimitEnabled) {
+            http.addFilterAfter(rateLimitFilter(), UsernamePasswordAuthenticationFilter.class);
+        }
 
         return http.build();
     }
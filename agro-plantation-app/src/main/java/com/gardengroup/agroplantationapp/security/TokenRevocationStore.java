@@ -0,0 +1,421 @@
+package com.gardengroup.agroplantationapp.security;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tokens revocados (logout) y usuarios con todos sus tokens revocados hasta un
+ * momento dado. Cada token se guarda como los 128 primeros bits de su SHA-256
+ * junto a su expiración; delante hay un filtro de Bloom de
+ * security.revocation.bloom-bits bits, así que la comprobación de una petición
+ * normal no toca el conjunto exacto (y sin revocaciones ni siquiera calcula el
+ * hash).
+ *
+ * Un token revocado solo hace falta recordarlo hasta que caduca: las entradas
+ * se colocan en una rueda de tiempo por su hora de expiración y cada
+ * security.revocation.tick-ms se vacían las ranuras vencidas y se reconstruye
+ * el filtro. Cada revocación se añade al final de un journal junto a
+ * security.revocation.file; el fichero con el estado completo solo se reescribe
+ * al compactar (en cada prune con cambios y al arrancar), y el journal se vacía.
+ * Al arrancar se carga el estado y se repite el journal encima.
+ */
+@Component
+@Slf4j
+public class TokenRevocationStore {
+
+    private static final int FILE_MAGIC = 0x52564B31;
+    private static final byte RECORD_TOKEN = 1;
+    private static final byte RECORD_USER = 2;
+    private static final int HASHES = 5;
+
+    private record TokenKey(long high, long low) {
+    }
+
+    private interface JournalRecord {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private final int bloomBits;
+    private final long tickMs;
+    private final Path file;
+    private final Path journalFile;
+
+    // Expiración (ms) de cada token revocado
+    private final Map<TokenKey, Long> revoked = new ConcurrentHashMap<>();
+    // Momento de la revocación de todos los tokens de cada usuario
+    private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+    private volatile AtomicLongArray bloom;
+
+    // Rueda de tiempo: una ranura por tick hasta cubrir la vida de un token
+    private final List<List<TokenKey>> wheel;
+    private long lastTick;
+
+    // Las escrituras en el journal y la compactación se ordenan con este monitor,
+    // no con el del store, así un logout no espera a otro más que su append
+    private final Object journalMonitor = new Object();
+    private FileChannel journal;
+    private long journalRecords;
+
+    public TokenRevocationStore(MeterRegistry meterRegistry,
+            @Value("${security.revocation.bloom-bits:1048576}") int bloomBits,
+            @Value("${security.revocation.tick-ms:3600000}") long tickMs,
+            @Value("${security.revocation.file:data/revoked-tokens.bin}") String file) {
+        this.bloomBits = Math.max(64, bloomBits);
+        // Con menos de un minuto por tick la rueda tendría demasiadas ranuras
+        this.tickMs = Math.max(60_000, tickMs);
+        this.file = StringUtils.hasText(file) ? Path.of(file) : null;
+        this.journalFile = (this.file != null) ? this.file.resolveSibling(this.file.getFileName() + ".log") : null;
+        this.bloom = new AtomicLongArray((this.bloomBits + 63) / 64);
+
+        int slots = (int) (ConstantSecurity.JWT_EXPIRATION_TOKEN / this.tickMs) + 2;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.lastTick = System.currentTimeMillis() / this.tickMs;
+
+        Gauge.builder("security.revoked.tokens", revoked, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        if (file == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() != FILE_MAGIC) {
+                    log.warn("Ignoring revocation file {} with unknown format", file);
+                } else {
+                    int tokens = in.readInt();
+                    for (int i = 0; i < tokens; i++) {
+                        loadToken(new TokenKey(in.readLong(), in.readLong()), in.readLong(), now);
+                    }
+                    int users = in.readInt();
+                    for (int i = 0; i < users; i++) {
+                        loadUser(in.readUTF(), in.readLong(), now);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Could not load revocation file {}: {}", file, e.getMessage());
+            }
+        }
+
+        int replayed = replayJournal(now);
+        log.info("Loaded {} revoked tokens and {} revoked users ({} journal records)", revoked.size(),
+                revokedUsers.size(), replayed);
+        // Deja el estado en un único fichero y un journal vacío, sin restos de un
+        // registro a medio escribir
+        compact();
+    }
+
+    // Comprobación de cada petición autenticada
+    public boolean isRevoked(String token, VerifiedToken verified) {
+        if (!revokedUsers.isEmpty()) {
+            Long revokedAt = revokedUsers.get(verified.principal().email());
+            // iat tiene precisión de segundos: un token del mismo segundo también cae
+            if (revokedAt != null && verified.issuedAt() <= revokedAt) {
+                return true;
+            }
+        }
+        if (revoked.isEmpty()) {
+            return false;
+        }
+
+        TokenKey key = key(token);
+        return mightContain(key) && revoked.containsKey(key);
+    }
+
+    public void revoke(String token, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        TokenKey key = key(token);
+        synchronized (this) {
+            add(key, expiresAt);
+        }
+        appendToJournal(RECORD_TOKEN, out -> {
+            out.writeLong(key.high());
+            out.writeLong(key.low());
+            out.writeLong(expiresAt);
+        });
+    }
+
+    // Revoca todos los tokens del usuario emitidos hasta ahora
+    public void revokeUser(String email) {
+        long revokedAt = System.currentTimeMillis();
+        revokedUsers.put(email, revokedAt);
+        appendToJournal(RECORD_USER, out -> {
+            out.writeUTF(email);
+            out.writeLong(revokedAt);
+        });
+    }
+
+    // Vacía las ranuras vencidas de la rueda y reconstruye el filtro sin ellas
+    @Scheduled(fixedDelayString = "${security.revocation.tick-ms:3600000}")
+    public synchronized void prune() {
+        long now = System.currentTimeMillis();
+        long tick = now / tickMs;
+        // Tras una pausa larga basta con recorrer la rueda una vez
+        long from = Math.max(lastTick + 1, tick - wheel.size() + 1);
+        int removed = 0;
+
+        for (long t = from; t <= tick; t++) {
+            int slot = (int) (t % wheel.size());
+            List<TokenKey> due = wheel.set(slot, new ArrayList<>());
+            for (TokenKey key : due) {
+                Long expiresAt = revoked.get(key);
+                if (expiresAt == null) {
+                    continue;
+                }
+                if (expiresAt <= now) {
+                    revoked.remove(key);
+                    removed++;
+                } else {
+                    wheel.get(slotOf(expiresAt)).add(key);
+                }
+            }
+        }
+        lastTick = tick;
+
+        int users = revokedUsers.size();
+        revokedUsers.values().removeIf(at -> at <= now - ConstantSecurity.JWT_EXPIRATION_TOKEN);
+        removed += users - revokedUsers.size();
+
+        if (removed > 0) {
+            AtomicLongArray rebuilt = new AtomicLongArray(bloom.length());
+            revoked.keySet().forEach(key -> setBits(rebuilt, key));
+            bloom = rebuilt;
+            log.info("Pruned {} expired revocations, {} tokens still revoked", removed, revoked.size());
+        }
+        if (removed > 0 || hasJournalRecords()) {
+            compact();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (journalMonitor) {
+            closeJournal();
+        }
+    }
+
+    // Funciones internas
+
+    private void loadToken(TokenKey key, long expiresAt, long now) {
+        if (expiresAt > now) {
+            add(key, expiresAt);
+        }
+    }
+
+    private void loadUser(String email, long revokedAt, long now) {
+        if (revokedAt > now - ConstantSecurity.JWT_EXPIRATION_TOKEN) {
+            revokedUsers.merge(email, revokedAt, Math::max);
+        }
+    }
+
+    private void add(TokenKey key, long expiresAt) {
+        // Primero el conjunto exacto: quien vea los bits del filtro ya encuentra la entrada
+        if (revoked.put(key, expiresAt) == null) {
+            wheel.get(slotOf(expiresAt)).add(key);
+        }
+        setBits(bloom, key);
+    }
+
+    private int slotOf(long expiresAt) {
+        return (int) ((expiresAt / tickMs) % wheel.size());
+    }
+
+    private boolean mightContain(TokenKey key) {
+        AtomicLongArray bits = bloom;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = bit(key, i);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBits(AtomicLongArray bits, TokenKey key) {
+        for (int i = 0; i < HASHES; i++) {
+            int bit = bit(key, i);
+            long mask = 1L << bit;
+            bits.getAndAccumulate(bit >>> 6, mask, (current, value) -> current | value);
+        }
+    }
+
+    // Doble hash con las dos mitades del digest
+    private int bit(TokenKey key, int i) {
+        return (int) Math.floorMod(key.high() + i * key.low(), (long) bloomBits);
+    }
+
+    // Un registro por revocación, escrito de una vez al final del journal
+    private void appendToJournal(byte type, JournalRecord record) {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            record.write(out);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+
+            synchronized (journalMonitor) {
+                FileChannel channel = openJournal();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                journalRecords++;
+            }
+        } catch (IOException e) {
+            // La revocación sigue vigente en memoria hasta el siguiente reinicio
+            log.error("Could not append to revocation journal {}: {}", journalFile, e.getMessage());
+        }
+    }
+
+    // Repite el journal sobre el estado cargado; un registro incompleto al final
+    // (un apagado a mitad de escritura) se descarta
+    private int replayJournal(long now) {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+
+        int records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            int type;
+            while ((type = in.read()) != -1) {
+                if (type == RECORD_TOKEN) {
+                    loadToken(new TokenKey(in.readLong(), in.readLong()), in.readLong(), now);
+                } else if (type == RECORD_USER) {
+                    loadUser(in.readUTF(), in.readLong(), now);
+                } else {
+                    log.warn("Ignoring revocation journal {} from record {}: unknown type {}", journalFile, records,
+                            type);
+                    break;
+                }
+                records++;
+            }
+        } catch (EOFException e) {
+            log.warn("Ignoring incomplete record at the end of revocation journal {}", journalFile);
+        } catch (IOException e) {
+            log.error("Could not read revocation journal {}: {}", journalFile, e.getMessage());
+        }
+        return records;
+    }
+
+    private boolean hasJournalRecords() {
+        synchronized (journalMonitor) {
+            return journalRecords > 0;
+        }
+    }
+
+    // Escribe el estado completo y vacía el journal. Con el monitor del journal
+    // tomado no entra ningún append a medias: lo que ya está en memoria queda en
+    // el fichero y lo que llegue después va al journal vacío.
+    private void compact() {
+        if (file == null) {
+            return;
+        }
+
+        synchronized (journalMonitor) {
+            try {
+                Path parent = file.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                Path tmp = Files.createTempFile(parent, "revoked-tokens", ".tmp");
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    // Copias: revokeUser escribe en el mapa sin el monitor del store
+                    List<Map.Entry<TokenKey, Long>> tokens = List.copyOf(revoked.entrySet());
+                    List<Map.Entry<String, Long>> users = List.copyOf(revokedUsers.entrySet());
+                    out.writeInt(FILE_MAGIC);
+                    out.writeInt(tokens.size());
+                    for (Map.Entry<TokenKey, Long> entry : tokens) {
+                        out.writeLong(entry.getKey().high());
+                        out.writeLong(entry.getKey().low());
+                        out.writeLong(entry.getValue());
+                    }
+                    out.writeInt(users.size());
+                    for (Map.Entry<String, Long> entry : users) {
+                        out.writeUTF(entry.getKey());
+                        out.writeLong(entry.getValue());
+                    }
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                openJournal().truncate(0);
+                journalRecords = 0;
+            } catch (IOException e) {
+                // El journal se conserva y se repite en el siguiente arranque
+                log.error("Could not compact revocation file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    // Llamadas con el monitor del journal tomado
+
+    private FileChannel openJournal() throws IOException {
+        if (journal == null) {
+            Files.createDirectories(journalFile.toAbsolutePath().getParent());
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return journal;
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Could not close revocation journal {}: {}", journalFile, e.getMessage());
+        }
+        journal = null;
+    }
+
+    private static TokenKey key(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new TokenKey(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
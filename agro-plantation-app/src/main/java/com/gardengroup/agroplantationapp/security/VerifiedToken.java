@@ -0,0 +1,5 @@
+package com.gardengroup.agroplantationapp.security;
+
+// Resultado de validar un token: su usuario y las fechas de emisión y expiración (ms)
+public record VerifiedToken(JwtPrincipal principal, long issuedAt, long expiresAt) {
+}
@@ -0,0 +1,65 @@
+package com.gardengroup.agroplantationapp.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tokens validados recientemente, para no repetir el parseo y la verificación
+ * HMAC en cada petición del mismo cliente. La clave es el SHA-256 del token
+ * (no se guarda el token), cada entrada caduca con el propio token y el total
+ * está acotado por security.token-cache.max-entries.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Map<String, VerifiedToken> entries;
+
+    public VerifiedTokenCache(@Value("${security.token-cache.max-entries:10000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            VerifiedToken verified = entries.get(digest);
+            if (verified != null && verified.expiresAt() > now) {
+                return verified;
+            }
+            entries.remove(digest);
+        }
+
+        // Si el token no es válido el verificador lanza la excepción y no se guarda
+        VerifiedToken verified = verifier.apply(token);
+        synchronized (this) {
+            entries.put(digest, verified);
+        }
+        return verified;
+    }
+
+    public synchronized void invalidate(String token) {
+        entries.remove(digest(token));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+import com.gardengroup.agroplantationapp.service.interfaces.IAuditSink;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Escritura asíncrona de la auditoría. Las peticiones solo encolan su registro
+ * en un buffer circular acotado (audit.buffer-size) y un único hilo lo vacía en
+ * lotes de hasta audit.batch-size registros hacia el destino configurado con
+ * audit.sink: la tabla audit_log (DatabaseAuditSink) o ficheros de segmentos
+ * (SegmentAuditSink).
+ *
+ * Cuando el buffer se llena se aplica audit.overflow: BLOCK espera hasta
+ * audit.block-timeout-ms a que haya hueco, DROP_OLDEST descarta el registro más
+ * antiguo y SAMPLE, a partir de tres cuartos de ocupación, guarda solo uno de
+ * cada audit.sample-rate. Al parar la aplicación se escribe lo pendiente.
+ */
+@Service
+@Slf4j
+public class AuditLogService {
+
+    public enum OverflowPolicy {
+        BLOCK, DROP_OLDEST, SAMPLE
+    }
+
+    @Autowired
+    private IAuditSink auditSink;
+
+    private final ArrayBlockingQueue<AuditRecord> buffer;
+    private final int batchSize;
+    private final OverflowPolicy overflow;
+    private final long blockTimeoutMs;
+    private final int sampleRate;
+    private final long shutdownTimeoutMs;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private final Counter written;
+    private final Counter failed;
+    private final Counter dropped;
+    private final Counter sampledOut;
+    private final Timer batchTimer;
+
+    public AuditLogService(MeterRegistry meterRegistry,
+            @Value("${audit.buffer-size:8192}") int bufferSize,
+            @Value("${audit.batch-size:200}") int batchSize,
+            @Value("${audit.overflow:DROP_OLDEST}") String overflow,
+            @Value("${audit.block-timeout-ms:100}") long blockTimeoutMs,
+            @Value("${audit.sample-rate:10}") int sampleRate,
+            @Value("${audit.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.overflow = OverflowPolicy.valueOf(overflow.trim().toUpperCase(Locale.ROOT));
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.writer = new Thread(this::drain, "audit-writer");
+        this.writer.setDaemon(true);
+
+        this.written = meterRegistry.counter("audit.written");
+        this.failed = meterRegistry.counter("audit.failed");
+        this.dropped = meterRegistry.counter("audit.dropped");
+        this.sampledOut = meterRegistry.counter("audit.sampled.out");
+        this.batchTimer = meterRegistry.timer("audit.batch.write");
+        Gauge.builder("audit.buffer.size", buffer, ArrayBlockingQueue::size).register(meterRegistry);
+        // Antigüedad del registro más viejo aún sin escribir
+        Gauge.builder("audit.lag.ms", this, AuditLogService::lagMs).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    // Llamado desde el hilo de la petición; no toca la base de datos
+    public void record(AuditRecord record) {
+        if (!running) {
+            return;
+        }
+
+        switch (overflow) {
+            case BLOCK -> {
+                try {
+                    if (!buffer.offer(record, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        dropped.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!buffer.offer(record)) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+            }
+            case SAMPLE -> {
+                if (buffer.remainingCapacity() < buffer.size() / 3
+                        && sampleCounter.incrementAndGet() % sampleRate != 0) {
+                    sampledOut.increment();
+                } else if (!buffer.offer(record)) {
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AuditRecord first = buffer.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // La parada se señala con running; se sigue vaciando lo que queda
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditRecord> batch) {
+        long start = System.nanoTime();
+        try {
+            auditSink.write(batch);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            // No se reintenta: un fallo persistente no debe acumular registros sin límite
+            failed.increment(batch.size());
+            log.error("Could not write {} audit records: {}", batch.size(), e.getMessage());
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private double lagMs() {
+        AuditRecord oldest = buffer.peek();
+        if (oldest == null) {
+            return 0;
+        }
+        return Duration.between(oldest.timestamp(), LocalDateTime.now()).toMillis();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writer.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            log.warn("{} audit records were not written before shutdown", buffer.size());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Particionado por fecha de audit_log (RANGE sobre TO_DAYS(timestamp)), por día
+ * o por mes según audit.partition.granularity. Al arrancar convierte la tabla si
+ * aún no está particionada y cada día (audit.partition.cron) crea las
+ * particiones de los próximos audit.partition.ahead periodos y borra enteras
+ * las que quedan fuera de audit.retention-days, sin DELETE fila a fila. La
+ * partición pmax recoge lo que caiga fuera de las creadas.
+ */
+@Service
+@Slf4j
+public class AuditPartitionManager {
+
+    public enum Granularity {
+        DAY, MONTH
+    }
+
+    private record Partition(String name, Long lessThan) {
+    }
+
+    private static final String MAX_PARTITION = "pmax";
+    // TO_DAYS('1970-01-01') en MySQL
+    private static final long TO_DAYS_EPOCH = 719528;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+    private final Granularity granularity;
+    private final int retentionDays;
+    private final int ahead;
+
+    public AuditPartitionManager(@Value("${audit.partition.enabled:true}") boolean enabled,
+            @Value("${audit.partition.granularity:DAY}") String granularity,
+            @Value("${audit.retention-days:90}") int retentionDays,
+            @Value("${audit.partition.ahead:7}") int ahead) {
+        this.enabled = enabled;
+        this.granularity = Granularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        this.retentionDays = retentionDays;
+        this.ahead = Math.max(1, ahead);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${audit.partition.cron:0 15 0 * * *}")
+    public void scheduledMaintain() {
+        maintain();
+    }
+
+    public synchronized void maintain() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            List<Partition> partitions = partitions();
+            if (partitions.isEmpty()) {
+                partitionTable();
+                partitions = partitions();
+            }
+            addUpcoming(partitions);
+            dropExpired(partitions);
+        } catch (DataAccessException e) {
+            // Por ejemplo, una base de datos sin particionado; la tabla sigue funcionando
+            log.error("Audit log partition maintenance failed: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private List<Partition> partitions() {
+        return jdbcTemplate.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_log' AND PARTITION_NAME IS NOT NULL "
+                + "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> {
+                    String description = rs.getString("PARTITION_DESCRIPTION");
+                    return new Partition(rs.getString("PARTITION_NAME"),
+                            "MAXVALUE".equalsIgnoreCase(description) ? null : Long.parseLong(description));
+                });
+    }
+
+    // Conversión inicial: las filas existentes quedan en una partición que se
+    // borra cuando toda ella sale del periodo de retención
+    private void partitionTable() {
+        LocalDate current = periodStart(LocalDate.now());
+        log.info("Partitioning audit_log by {}", granularity);
+
+        // MySQL exige que la columna de particionado forme parte de la clave primaria
+        jdbcTemplate.update("UPDATE audit_log SET `timestamp` = '1970-01-01' WHERE `timestamp` IS NULL");
+        jdbcTemplate.execute("ALTER TABLE audit_log MODIFY `timestamp` DATETIME(6) NOT NULL, "
+                + "DROP PRIMARY KEY, ADD PRIMARY KEY (id, `timestamp`)");
+
+        List<String> definitions = new ArrayList<>();
+        definitions.add(definition("p_initial", current));
+        definitions.addAll(upcoming(current, Long.MIN_VALUE));
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE audit_log PARTITION BY RANGE (TO_DAYS(`timestamp`)) ("
+                + String.join(", ", definitions) + ")");
+    }
+
+    private void addUpcoming(List<Partition> partitions) {
+        long lastBound = partitions.stream()
+                .filter(partition -> partition.lessThan() != null)
+                .mapToLong(Partition::lessThan)
+                .max().orElse(Long.MIN_VALUE);
+        List<String> definitions = upcoming(periodStart(LocalDate.now()), lastBound);
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        boolean hasMax = partitions.stream().anyMatch(partition -> partition.lessThan() == null);
+        if (hasMax) {
+            // pmax está vacía mientras las particiones vayan por delante, así que reorganizarla es inmediato
+            jdbcTemplate.execute("ALTER TABLE audit_log REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                    + String.join(", ", definitions) + ", PARTITION " + MAX_PARTITION
+                    + " VALUES LESS THAN MAXVALUE)");
+        } else {
+            jdbcTemplate.execute("ALTER TABLE audit_log ADD PARTITION (" + String.join(", ", definitions) + ")");
+        }
+        log.info("Added {} audit_log partitions", definitions.size());
+    }
+
+    private void dropExpired(List<Partition> partitions) {
+        if (retentionDays <= 0) {
+            return;
+        }
+
+        long cutoff = toDays(LocalDate.now().minusDays(retentionDays));
+        List<String> expired = partitions.stream()
+                .filter(partition -> partition.lessThan() != null && partition.lessThan() <= cutoff)
+                .map(Partition::name)
+                .collect(Collectors.toList());
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE audit_log DROP PARTITION " + String.join(", ", expired));
+        log.info("Dropped audit_log partitions {} (retention {} days)", expired, retentionDays);
+    }
+
+    // Definiciones de los periodos desde el actual hasta ahead periodos más allá
+    // cuyo límite supera lastBound
+    private List<String> upcoming(LocalDate current, long lastBound) {
+        List<String> definitions = new ArrayList<>();
+        LocalDate period = current;
+        for (int i = 0; i <= ahead; i++) {
+            if (toDays(next(period)) > lastBound) {
+                definitions.add(definition(name(period), next(period)));
+            }
+            period = next(period);
+        }
+        return definitions;
+    }
+
+    private String definition(String name, LocalDate lessThan) {
+        return "PARTITION " + name + " VALUES LESS THAN (" + toDays(lessThan) + ")";
+    }
+
+    private String name(LocalDate period) {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(granularity == Granularity.DAY ? "yyyyMMdd" : "yyyyMM");
+        return "p" + period.format(format);
+    }
+
+    private LocalDate periodStart(LocalDate date) {
+        return (granularity == Granularity.DAY) ? date : date.withDayOfMonth(1);
+    }
+
+    private LocalDate next(LocalDate period) {
+        return (granularity == Granularity.DAY) ? period.plusDays(1) : period.plusMonths(1);
+    }
+
+    private static long toDays(LocalDate date) {
+        return date.toEpochDay() + TO_DAYS_EPOCH;
+    }
+}
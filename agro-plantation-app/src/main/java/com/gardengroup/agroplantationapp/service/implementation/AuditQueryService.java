@@ -0,0 +1,101 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditPageDTO;
+import com.gardengroup.agroplantationapp.model.entity.AuditLog;
+import com.gardengroup.agroplantationapp.utils.AuditCursor;
+import com.gardengroup.agroplantationapp.utils.Constants;
+
+/**
+ * Consulta de audit_log para administración, del registro más reciente al más
+ * antiguo. Solo se añaden a la consulta los filtros indicados, para que MySQL
+ * use el índice que corresponde ((username, timestamp), (endpoint, timestamp) o
+ * (timestamp)) y descarte las particiones fuera del rango de fechas. La
+ * paginación es por cursor (fecha e id del último registro).
+ */
+@Service
+public class AuditQueryService {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    private static final RowMapper<AuditLog> ROW_MAPPER = (rs, rowNum) -> {
+        AuditLog log = new AuditLog();
+        log.setId(rs.getLong("id"));
+        log.setUsername(rs.getString("username"));
+        log.setAction(rs.getString("action"));
+        log.setMethod(rs.getString("method"));
+        log.setEndpoint(rs.getString("endpoint"));
+        log.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        log.setIp(rs.getString("ip"));
+        return log;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public AuditPageDTO query(String username, String endpoint, String method, LocalDateTime from,
+            LocalDateTime to, String cursor, Integer limit) {
+        int pageSize = (limit != null) ? limit : DEFAULT_LIMIT;
+        if (pageSize <= 0 || pageSize > MAX_LIMIT) {
+            throw new IllegalArgumentException(Constants.PAGE_INVALID);
+        }
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, username, action, method, endpoint, `timestamp`, ip FROM audit_log WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (StringUtils.hasText(username)) {
+            sql.append(" AND username = ?");
+            params.add(username);
+        }
+        if (StringUtils.hasText(endpoint)) {
+            sql.append(" AND endpoint = ?");
+            params.add(endpoint);
+        }
+        if (StringUtils.hasText(method)) {
+            sql.append(" AND method = ?");
+            params.add(method.toUpperCase(Locale.ROOT));
+        }
+        if (from != null) {
+            sql.append(" AND `timestamp` >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND `timestamp` < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        if (cursor != null) {
+            AuditCursor after = AuditCursor.decode(cursor);
+            Timestamp timestamp = Timestamp.valueOf(after.getTimestamp());
+            // La primera condición acota el rango del índice; la segunda desempata por id
+            sql.append(" AND `timestamp` <= ? AND (`timestamp` < ? OR id < ?)");
+            params.add(timestamp);
+            params.add(timestamp);
+            params.add(after.getId());
+        }
+        sql.append(" ORDER BY `timestamp` DESC, id DESC LIMIT ?");
+        // Una fila de más para saber si hay página siguiente
+        params.add(pageSize + 1);
+
+        List<AuditLog> entries = jdbcTemplate.query(sql.toString(), ROW_MAPPER, params.toArray());
+
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            AuditLog last = entries.get(pageSize - 1);
+            nextCursor = new AuditCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new AuditPageDTO(new ArrayList<>(entries), nextCursor);
+    }
+}
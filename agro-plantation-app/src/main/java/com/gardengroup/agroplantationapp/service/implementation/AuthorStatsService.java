@@ -0,0 +1,111 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.dto.publication.FeedKey;
+import com.gardengroup.agroplantationapp.model.entity.AuthorStats;
+import com.gardengroup.agroplantationapp.model.repository.AuthorStatsRepository;
+import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
+import com.gardengroup.agroplantationapp.utils.FeedCursor;
+
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class AuthorStatsService {
+
+    private static final int KEY_AT_BATCH = 100;
+
+    @Autowired
+    private AuthorStatsRepository authorStatsRepository;
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    // Se ejecuta dentro de la transacción de quien guarda la publicación
+    @Transactional
+    public void publicationAdded(Long authorId) {
+        authorStatsRepository.incrementPublications(authorId);
+    }
+
+    @Transactional
+    public void publicationsRemoved(Long authorId) {
+        authorStatsRepository.deleteByAuthorId(authorId);
+    }
+
+    // Feed userQuantity en dos pasos sobre índices: los autores siguientes al
+    // cursor por (publication_count, author_id) y, de cada uno, sus publicaciones
+    // por (author_id, id). Ninguna consulta ordena el join completo.
+    public List<FeedKey> seek(FeedCursor from, int limit) {
+        List<FeedKey> keys = new ArrayList<>(limit);
+        long count = from.getPrimaryKey();
+        long authorId = from.getSecondaryKey();
+        // El primer lote incluye al autor del cursor para continuar sus publicaciones
+        long authorBound = (authorId == Long.MAX_VALUE) ? authorId : authorId + 1;
+
+        while (keys.size() < limit) {
+            List<AuthorStats> authors = authorStatsRepository.seekAuthors(count, authorBound, limit - keys.size());
+            if (authors.isEmpty()) {
+                break;
+            }
+            for (AuthorStats stats : authors) {
+                long fromId = (stats.getAuthorId() == authorId && stats.getPublicationCount() == count)
+                        ? from.getId() : Long.MAX_VALUE;
+                keys.addAll(publicationRepository.seekByAuthor(stats.getAuthorId(), stats.getPublicationCount(),
+                        fromId, limit - keys.size()));
+                if (keys.size() >= limit) {
+                    break;
+                }
+            }
+            AuthorStats last = authors.get(authors.size() - 1);
+            count = last.getPublicationCount();
+            authorBound = last.getAuthorId();
+        }
+        return keys;
+    }
+
+    // Clave en una posición del feed userQuantity: se acumulan los recuentos de
+    // author_stats hasta el autor que la contiene y solo dentro de él se usa OFFSET
+    public Optional<FeedKey> keyAt(int position) {
+        long count = Long.MAX_VALUE;
+        long authorBound = Long.MAX_VALUE;
+        long skipped = 0;
+
+        while (true) {
+            List<AuthorStats> authors = authorStatsRepository.seekAuthors(count, authorBound, KEY_AT_BATCH);
+            if (authors.isEmpty()) {
+                return Optional.empty();
+            }
+            for (AuthorStats stats : authors) {
+                if (position < skipped + stats.getPublicationCount()) {
+                    return publicationRepository.keyAtByAuthor(stats.getAuthorId(), stats.getPublicationCount(),
+                            (int) (position - skipped));
+                }
+                skipped += stats.getPublicationCount();
+            }
+            AuthorStats last = authors.get(authors.size() - 1);
+            count = last.getPublicationCount();
+            authorBound = last.getAuthorId();
+        }
+    }
+
+    // Carga inicial del agregado en bases de datos que ya tenían publicaciones
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (authorStatsRepository.count() == 0 && publicationRepository.count() > 0) {
+            int authors = authorStatsRepository.rebuildFromPublications();
+            log.info("Author stats rebuilt for {} authors", authors);
+        }
+    }
+}
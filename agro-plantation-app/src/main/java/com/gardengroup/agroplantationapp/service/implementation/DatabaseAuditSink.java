@@ -0,0 +1,50 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+import com.gardengroup.agroplantationapp.service.interfaces.IAuditSink;
+
+/**
+ * Destino de auditoría por defecto (audit.sink=database): la tabla audit_log
+ * de AuditLog, con un único INSERT de varias filas por lote.
+ */
+@Service
+@ConditionalOnProperty(name = "audit.sink", havingValue = "database", matchIfMissing = true)
+public class DatabaseAuditSink implements IAuditSink {
+
+    private static final String INSERT_PREFIX = "INSERT INTO audit_log (username, action, method, endpoint, "
+            + "`timestamp`, ip) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void write(List<AuditRecord> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] params = new Object[batch.size() * 6];
+        int i = 0;
+        for (AuditRecord record : batch) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+            params[i++] = record.username();
+            params[i++] = record.action();
+            params[i++] = record.method();
+            params[i++] = record.endpoint();
+            params[i++] = Timestamp.valueOf(record.timestamp());
+            params[i++] = record.ip();
+        }
+
+        jdbcTemplate.update(sql.toString(), params);
+    }
+}
@@ -0,0 +1,59 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
+import com.gardengroup.agroplantationapp.utils.AfterCommit;
+import com.gardengroup.agroplantationapp.utils.Constants;
+
+/**
+ * Metadatos de paginación de los feeds. Todos los feeds recorren el conjunto
+ * completo de publicaciones, así que basta un único COUNT cacheado con un TTL
+ * corto que además se invalida al crear o borrar publicaciones.
+ */
+@Service
+public class FeedCountService {
+
+    // Número máximo de paginaciones siguientes que se informan al front
+    private static final int MAX_FOLLOWING_PAGES = 3;
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    @Value("${feed.count.ttl-ms:30000}")
+    private long ttlMillis;
+
+    private volatile CachedCount cached;
+
+    private record CachedCount(long total, long expiresAt) {
+    }
+
+    public long totalPublications() {
+        CachedCount current = cached;
+        if (current != null && current.expiresAt() > System.currentTimeMillis()) {
+            return current.total();
+        }
+
+        synchronized (this) {
+            current = cached;
+            if (current == null || current.expiresAt() <= System.currentTimeMillis()) {
+                current = new CachedCount(publicationRepository.count(), System.currentTimeMillis() + ttlMillis);
+                cached = current;
+            }
+            return current.total();
+        }
+    }
+
+    // Paginaciones que quedan después de la página indicada, como máximo 3
+    public int followingPages(int pag) {
+        long remaining = totalPublications() - (long) (pag - 1) * Constants.PAGINATION_SIZE;
+        long pages = (remaining + Constants.PAGINATION_SIZE - 1) / Constants.PAGINATION_SIZE;
+        return (int) Math.max(0, Math.min(MAX_FOLLOWING_PAGES, pages - 1));
+    }
+
+    public void invalidate() {
+        AfterCommit.run(() -> cached = null);
+    }
+}
@@ -0,0 +1,167 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationFilterDTO;
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationSummary;
+import com.gardengroup.agroplantationapp.utils.AfterCommit;
+import com.gardengroup.agroplantationapp.utils.FeedOrder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caché LRU de páginas de los feeds por número (orden, página y semilla en el
+ * feed aleatorio). Está acotada por el tamaño estimado en bytes de las páginas
+ * y se invalida explícitamente desde los guardados, actualizaciones y votos de
+ * publicaciones. Publica aciertos, fallos, desalojos y ocupación como métricas
+ * feed.page.cache.*.
+ */
+@Service
+public class FeedPageCache {
+
+    public record PageKey(FeedOrder order, int page, Long seed) {
+    }
+
+    private record Entry(PublicationFilterDTO page, Set<Long> ids, long weight) {
+    }
+
+    private final Map<PageKey, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final long maxBytes;
+    private long weight;
+    // Cambia con cada invalidación para no guardar páginas calculadas antes de ella.
+    // Es también la generación de los feeds de la que se derivan sus ETag, parte
+    // de la hora de arranque para no repetir valores tras un reinicio
+    private long generation = System.currentTimeMillis();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public FeedPageCache(MeterRegistry meterRegistry,
+            @Value("${feed.page-cache.max-bytes:4194304}") long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.hits = meterRegistry.counter("feed.page.cache.hits");
+        this.misses = meterRegistry.counter("feed.page.cache.misses");
+        this.evictions = meterRegistry.counter("feed.page.cache.evictions");
+        this.invalidations = meterRegistry.counter("feed.page.cache.invalidations");
+        Gauge.builder("feed.page.cache.size", this, cache -> cache.size()).register(meterRegistry);
+        Gauge.builder("feed.page.cache.bytes", this, cache -> cache.weight()).register(meterRegistry);
+    }
+
+    public PublicationFilterDTO get(PageKey key, Supplier<PublicationFilterDTO> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits.increment();
+                return entry.page();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        // La página se calcula fuera del lock
+        PublicationFilterDTO page = loader.get();
+        Set<Long> ids = page.getPublications().stream().map(PublicationSummary::getId).collect(Collectors.toSet());
+        Entry entry = new Entry(page, ids, estimateBytes(page));
+
+        synchronized (this) {
+            if (loadGeneration == generation && entry.weight() <= maxBytes) {
+                Entry previous = entries.put(key, entry);
+                weight += entry.weight() - (previous != null ? previous.weight() : 0);
+                evictOverflow();
+            }
+        }
+        return page;
+    }
+
+    // Hooks de invalidación, se aplican al confirmar la transacción
+
+    public void publicationSaved() {
+        AfterCommit.run(this::clear);
+    }
+
+    // Un borrado desplaza todas las páginas posteriores de cada orden
+    public void publicationsRemoved() {
+        AfterCommit.run(this::clear);
+    }
+
+    public void publicationChanged(Long publicationId) {
+        AfterCommit.run(() -> removeIf(null, publicationId));
+    }
+
+    // Un voto reordena el feed por likes y cambia el score mostrado en cualquier
+    // página que contenga la publicación
+    public void scoreChanged(Long publicationId) {
+        AfterCommit.run(() -> removeIf(FeedOrder.LIKE, publicationId));
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    private synchronized void clear() {
+        generation++;
+        invalidations.increment();
+        entries.clear();
+        weight = 0;
+    }
+
+    private synchronized void removeIf(FeedOrder order, Long publicationId) {
+        generation++;
+        invalidations.increment();
+        Iterator<Map.Entry<PageKey, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<PageKey, Entry> entry = iterator.next();
+            if (entry.getKey().order() == order || entry.getValue().ids().contains(publicationId)) {
+                weight -= entry.getValue().weight();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (weight > maxBytes && iterator.hasNext()) {
+            weight -= iterator.next().weight();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    // Estimación aproximada del tamaño en memoria de una página
+    private static long estimateBytes(PublicationFilterDTO page) {
+        long bytes = 128;
+        for (PublicationSummary summary : page.getPublications()) {
+            bytes += 160 + 2L * (length(summary.getTitle()) + length(summary.getAuthorName())
+                    + length(summary.getAuthorLastname()) + length(summary.getAuthorizationStatus()));
+            if (summary.getMainImage() != null) {
+                bytes += 64 + 2L * (length(summary.getMainImage().getId()) + length(summary.getMainImage().getUrl()));
+            }
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return (value != null) ? value.length() : 0;
+    }
+}
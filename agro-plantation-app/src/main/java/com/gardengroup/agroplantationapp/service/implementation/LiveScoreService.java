@@ -0,0 +1,236 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationScore;
+import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
+import com.gardengroup.agroplantationapp.utils.AfterCommit;
+import com.gardengroup.agroplantationapp.utils.Constants;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Actualizaciones de score en vivo por Server-Sent Events. Un cliente se
+ * suscribe a un conjunto de publicaciones y recibe eventos "scores" con el
+ * último score de las que han cambiado.
+ *
+ * Los votos solo anotan el cambio en un mapa (sin bloquear la transacción); un
+ * dispatcher periódico (live.dispatch-ms) lo vacía y reparte los cambios en el
+ * buffer de cada suscriptor, que agrupa por publicación y está acotado por
+ * live.buffer-size. Los envíos se hacen en un pool propio con un envío en curso
+ * como mucho por suscriptor, así un cliente lento solo se retrasa a sí mismo.
+ */
+@Service
+public class LiveScoreService {
+
+    public record ScoreEvent(Long publicationId, Integer score) {
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> publicationIds;
+        // Último score pendiente de enviar por publicación
+        private final Map<Long, Integer> buffer = new LinkedHashMap<>();
+        private boolean sending;
+
+        private Subscriber(SseEmitter emitter, Set<Long> publicationIds) {
+            this.emitter = emitter;
+            this.publicationIds = publicationIds;
+        }
+    }
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    private final long timeoutMs;
+    private final int maxIds;
+    private final int bufferSize;
+
+    // Cambios confirmados aún no repartidos, ya agrupados por publicación
+    private final Map<Long, Integer> changed = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> subscribersByPublication = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Suscriptores con buffer cuyo envío rechazó el pool; se reintentan en el
+    // siguiente reparto aunque no tengan cambios nuevos
+    private final Set<Subscriber> retries = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+
+    private final Counter dropped;
+
+    public LiveScoreService(MeterRegistry meterRegistry,
+            @Value("${live.timeout-ms:1800000}") long timeoutMs,
+            @Value("${live.max-ids:100}") int maxIds,
+            @Value("${live.buffer-size:64}") int bufferSize,
+            @Value("${live.sender-threads:4}") int senderThreads) {
+        this.timeoutMs = timeoutMs;
+        this.maxIds = maxIds;
+        this.bufferSize = bufferSize;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1024),
+                runnable -> new Thread(runnable, "live-score-" + threadCount.incrementAndGet()));
+
+        this.dropped = meterRegistry.counter("live.scores.dropped");
+        Gauge.builder("live.scores.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Collection<Long> publicationIds) {
+        Set<Long> ids = new LinkedHashSet<>(publicationIds);
+        if (ids.isEmpty() || ids.size() > maxIds) {
+            throw new IllegalArgumentException(Constants.LIVE_IDS_INVALID);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, ids);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        subscribers.add(subscriber);
+        // compute es atómico con el de unsubscribe, que quita el conjunto vacío
+        for (Long id : ids) {
+            subscribersByPublication.compute(id, (key, set) -> {
+                Set<Subscriber> interested = (set != null) ? set : ConcurrentHashMap.newKeySet();
+                interested.add(subscriber);
+                return interested;
+            });
+        }
+
+        // Estado inicial, para no perder votos entre la última lectura del cliente
+        // y la suscripción
+        for (PublicationScore score : publicationRepository.findScoresByIdIn(ids)) {
+            deliver(subscriber, score.getId(), score.getScore());
+        }
+        return emitter;
+    }
+
+    // Llamado desde los votos; solo registra el cambio al confirmar
+    public void scoreChanged(Long publicationId, int score) {
+        AfterCommit.run(() -> changed.put(publicationId, score));
+    }
+
+    @Scheduled(fixedDelayString = "${live.dispatch-ms:250}")
+    public void dispatch() {
+        for (Long publicationId : changed.keySet()) {
+            // remove devuelve el último score anotado, aunque llegue otro mientras tanto
+            Integer score = changed.remove(publicationId);
+            Set<Subscriber> interested = subscribersByPublication.get(publicationId);
+            if (score == null || interested == null) {
+                continue;
+            }
+            for (Subscriber subscriber : interested) {
+                deliver(subscriber, publicationId, score);
+            }
+        }
+
+        List<Subscriber> retrying = List.copyOf(retries);
+        retries.removeAll(retrying);
+        for (Subscriber subscriber : retrying) {
+            if (subscribers.contains(subscriber)) {
+                startSending(subscriber);
+            }
+        }
+    }
+
+    private void deliver(Subscriber subscriber, Long publicationId, Integer score) {
+        synchronized (subscriber) {
+            subscriber.buffer.remove(publicationId);
+            subscriber.buffer.put(publicationId, score);
+            // Buffer lleno: se descarta el cambio más antiguo
+            if (subscriber.buffer.size() > bufferSize) {
+                Iterator<Long> oldest = subscriber.buffer.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped.increment();
+            }
+        }
+        startSending(subscriber);
+    }
+
+    private void startSending(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.sending || subscriber.buffer.isEmpty()) {
+                return;
+            }
+            subscriber.sending = true;
+        }
+
+        try {
+            senders.execute(() -> send(subscriber));
+        } catch (RejectedExecutionException e) {
+            // El pool está saturado; el buffer se envía en el siguiente reparto
+            synchronized (subscriber) {
+                subscriber.sending = false;
+            }
+            retries.add(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        while (true) {
+            List<ScoreEvent> events;
+            synchronized (subscriber) {
+                if (subscriber.buffer.isEmpty()) {
+                    subscriber.sending = false;
+                    return;
+                }
+                events = new ArrayList<>(subscriber.buffer.size());
+                subscriber.buffer.forEach((id, score) -> events.add(new ScoreEvent(id, score)));
+                subscriber.buffer.clear();
+            }
+
+            try {
+                subscriber.emitter.send(SseEmitter.event().name("scores").data(events));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        retries.remove(subscriber);
+        for (Long id : subscriber.publicationIds) {
+            subscribersByPublication.computeIfPresent(id, (key, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : List.copyOf(subscribers)) {
+            subscriber.emitter.complete();
+        }
+        senders.shutdownNow();
+    }
+}
@@ -0,0 +1,487 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.dto.publication.FeedIndexRow;
+import com.gardengroup.agroplantationapp.model.dto.publication.FeedKey;
+import com.gardengroup.agroplantationapp.model.entity.Publication;
+import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
+import com.gardengroup.agroplantationapp.utils.AfterCommit;
+import com.gardengroup.agroplantationapp.utils.FeedCursor;
+import com.gardengroup.agroplantationapp.utils.FeedOrder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice en memoria de los feeds. Guarda en columnas primitivas los datos de
+ * orden de todas las publicaciones (id, score, fecha, autor y clave aleatoria)
+ * y, para cada orden de feed, las filas ya ordenadas. Una página se resuelve
+ * con una búsqueda binaria sobre esas filas y devuelve solo los ids, sin
+ * consultar MySQL. Como las consultas seek, no filtra por visibilidad ni por
+ * estado de autorización.
+ *
+ * Una recarga lee la tabla sin bloquear el índice; los cambios confirmados
+ * mientras tanto se guardan y se vuelven a aplicar sobre las filas nuevas.
+ *
+ * Mientras no está cargado (o si feed.index.enabled=false) PublicationService
+ * sigue usando las consultas seek de PublicationRepository.
+ */
+@Service
+@Slf4j
+public class PublicationFeedIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    @Value("${feed.index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columnas, una posición (fila) por publicación
+    private long[] ids = new long[0];
+    private int[] scores = new int[0];
+    private long[] dates = new long[0];
+    private long[] authors = new long[0];
+    private int[] randomKeys = new int[0];
+    private int size;
+
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final Map<Long, Integer> countByAuthor = new HashMap<>();
+
+    // Filas en el orden de cada feed, se mantienen al día en cada escritura
+    private final EnumMap<FeedOrder, int[]> sortedRows = new EnumMap<>(FeedOrder.class);
+
+    private volatile boolean ready;
+
+    // Cambios confirmados durante una recarga en curso, en orden; null si no hay
+    // recarga. Se protege con el lock de escritura.
+    private List<Runnable> pendingUpdates;
+    private final Object reloadMonitor = new Object();
+
+    private record IndexedKey(Long primaryKey, Long secondaryKey, Long id) implements FeedKey {
+
+        @Override
+        public Long getPrimaryKey() {
+            return primaryKey;
+        }
+
+        @Override
+        public Long getSecondaryKey() {
+            return secondaryKey;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void hydrate() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        // Las recargas no se solapan, así solo hay una lista de cambios pendientes
+        synchronized (reloadMonitor) {
+            lock.writeLock().lock();
+            try {
+                pendingUpdates = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<FeedIndexRow> rows;
+            try {
+                rows = publicationRepository.findFeedIndexRows();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingUpdates = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                resize(Math.max(INITIAL_CAPACITY, rows.size() * 2));
+                size = 0;
+                rowById.clear();
+                countByAuthor.clear();
+
+                for (FeedIndexRow row : rows) {
+                    appendRow(row.getId(), valueOf(row.getScore()), row.getPublicationDate(), row.getAuthorId(),
+                            valueOf(row.getRandomKey()));
+                    countByAuthor.merge(row.getAuthorId(), 1, Integer::sum);
+                }
+
+                for (FeedOrder order : FeedOrder.values()) {
+                    sortOrder(order);
+                }
+
+                // Los cambios ya incluidos en la lectura se repiten sin efecto:
+                // fijan los mismos valores
+                replayed = pendingUpdates.size();
+                pendingUpdates.forEach(Runnable::run);
+                pendingUpdates = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("Feed index loaded with {} publications ({} concurrent changes replayed)", rows.size(),
+                    replayed);
+        }
+    }
+
+    // Lecturas
+
+    public List<FeedKey> seek(FeedCursor from, int limit) {
+        FeedOrder order = from.getOrder();
+
+        return read(() -> {
+            if (order == FeedOrder.RANDOM) {
+                return seekRandom(from, limit);
+            }
+
+            int start = firstAfter(order, size, from.getPrimaryKey(), from.getSecondaryKey(), from.getId());
+            List<FeedKey> keys = new ArrayList<>(Math.min(limit, size - start));
+            int[] sorted = sortedRows.get(order);
+            for (int i = start; i < size && keys.size() < limit; i++) {
+                keys.add(keyOf(order, sorted[i]));
+            }
+            return keys;
+        });
+    }
+
+    public Optional<FeedKey> keyAt(FeedOrder order, int position) {
+        return read(() -> (position < 0 || position >= size) ? Optional.empty()
+                : Optional.of(keyOf(order, sortedRows.get(order)[position])));
+    }
+
+    public Optional<FeedKey> randomKeyAt(long seed, int position) {
+        return read(() -> {
+            if (position < 0 || position >= size) {
+                return Optional.empty();
+            }
+            int row = sortedRows.get(FeedOrder.RANDOM)[(randomStartIndex(seed) + position) % size];
+            return Optional.of(randomKeyOf(row, seed));
+        });
+    }
+
+    // Escrituras, se aplican cuando la transacción que las origina confirma
+
+    public void publicationSaved(Publication publication) {
+        long id = publication.getId();
+        int score = valueOf(publication.getScore());
+        long date = publication.getPublicationDate().toEpochSecond(ZoneOffset.UTC);
+        long author = publication.getAuthor().getId();
+        int randomKey = valueOf(publication.getRandomKey());
+
+        AfterCommit.run(() -> apply(() -> {
+            Integer row = rowById.get(id);
+            if (row != null) {
+                reposition(FeedOrder.LIKE, row, () -> scores[row] = score);
+                return;
+            }
+
+            int newRow = appendRow(id, score, date, author, randomKey);
+            for (FeedOrder order : FeedOrder.values()) {
+                if (order == FeedOrder.QUANTITY) {
+                    insertAuthorRow(newRow);
+                } else {
+                    insertSorted(order, newRow);
+                }
+            }
+        }));
+    }
+
+    public void scoreChanged(Long publicationId, int score) {
+        AfterCommit.run(() -> apply(() -> {
+            Integer row = rowById.get(publicationId);
+            if (row != null) {
+                reposition(FeedOrder.LIKE, row, () -> scores[row] = score);
+            }
+        }));
+    }
+
+    // Los borrados son poco frecuentes, se recarga el índice completo
+    public void publicationsRemoved() {
+        AfterCommit.run(() -> {
+            if (ready) {
+                reload();
+            }
+        });
+    }
+
+    // Aplica un cambio al índice cargado y, si hay una recarga en curso, lo
+    // guarda para repetirlo sobre las filas que esta lea
+    private void apply(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+            if (ready) {
+                update.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Funciones internas, llamadas con el lock tomado
+
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<FeedKey> seekRandom(FeedCursor from, int limit) {
+        long seed = from.getSecondaryKey();
+        long start = RandomFeedService.startOf(seed);
+        int startIndex = randomStartIndex(seed);
+        int position = firstAfter(FeedOrder.RANDOM, size, from.getPrimaryKey(), 0L, from.getId());
+
+        // Posición lógica dentro del recorrido de la semilla (primera vuelta o vuelta
+        // al principio del espacio de claves)
+        int logical = (from.getPrimaryKey() >= start) ? position - startIndex : position + size - startIndex;
+
+        List<FeedKey> keys = new ArrayList<>();
+        int[] sorted = sortedRows.get(FeedOrder.RANDOM);
+        for (int i = logical; i < size && keys.size() < limit; i++) {
+            keys.add(randomKeyOf(sorted[(startIndex + i) % size], seed));
+        }
+        return keys;
+    }
+
+    private int randomStartIndex(long seed) {
+        return firstAfter(FeedOrder.RANDOM, size, RandomFeedService.startOf(seed), 0L, Long.MIN_VALUE);
+    }
+
+    private int appendRow(long id, int score, long date, long author, int randomKey) {
+        if (size == ids.length) {
+            resize(Math.max(INITIAL_CAPACITY, size * 2));
+        }
+
+        int row = size++;
+        ids[row] = id;
+        scores[row] = score;
+        dates[row] = date;
+        authors[row] = author;
+        randomKeys[row] = randomKey;
+
+        rowById.put(id, row);
+        return row;
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+        dates = Arrays.copyOf(dates, capacity);
+        authors = Arrays.copyOf(authors, capacity);
+        randomKeys = Arrays.copyOf(randomKeys, capacity);
+        for (FeedOrder order : FeedOrder.values()) {
+            sortedRows.put(order, Arrays.copyOf(sortedRows.getOrDefault(order, new int[0]), capacity));
+        }
+    }
+
+    // Ordenación completa, solo en las recargas. Las claves se copian antes a
+    // columnas primitivas y las filas se ordenan con un merge sort sobre int[]
+    private void sortOrder(FeedOrder order) {
+        long[] primary = new long[size];
+        long[] secondary = new long[size];
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            primary[i] = primaryKey(order, i);
+            secondary[i] = secondaryKey(order, i);
+            rows[i] = i;
+        }
+        int direction = (order == FeedOrder.RANDOM) ? 1 : -1;
+        mergeSort(rows, new int[size], 0, size, primary, secondary, direction);
+        System.arraycopy(rows, 0, sortedRows.get(order), 0, size);
+    }
+
+    private void mergeSort(int[] rows, int[] buffer, int from, int to, long[] primary, long[] secondary,
+            int direction) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(rows, buffer, from, mid, primary, secondary, direction);
+        mergeSort(rows, buffer, mid, to, primary, secondary, direction);
+
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid
+                    && compareRows(buffer[left], buffer[right], primary, secondary) * direction <= 0)) {
+                rows[i] = buffer[left++];
+            } else {
+                rows[i] = buffer[right++];
+            }
+        }
+    }
+
+    private int compareRows(int a, int b, long[] primary, long[] secondary) {
+        int cmp = Long.compare(primary[a], primary[b]);
+        if (cmp == 0) {
+            cmp = Long.compare(secondary[a], secondary[b]);
+        }
+        return (cmp != 0) ? cmp : Long.compare(ids[a], ids[b]);
+    }
+
+    // Inserta una fila nueva (ya contada en size) en su posición del orden
+    private void insertSorted(FeedOrder order, int row) {
+        int[] sorted = sortedRows.get(order);
+        int count = size - 1;
+        int index = lowerBound(order, count, primaryKey(order, row), secondaryKey(order, row), ids[row]);
+        System.arraycopy(sorted, index, sorted, index + 1, count - index);
+        sorted[index] = row;
+    }
+
+    // Inserta una fila nueva en userQuantity. Solo cambian de sitio las filas de
+    // su autor: su bloque sube con el nuevo recuento y las filas que salta bajan
+    private void insertAuthorRow(int row) {
+        long author = authors[row];
+        int previous = countByAuthor.getOrDefault(author, 0);
+        int[] sorted = sortedRows.get(FeedOrder.QUANTITY);
+        int count = size - 1;
+
+        // Las búsquedas se hacen con el recuento anterior, el que tiene el bloque
+        int blockStart = lowerBound(FeedOrder.QUANTITY, count, previous, author, Long.MAX_VALUE);
+        int blockEnd = blockStart + previous;
+        int target = lowerBound(FeedOrder.QUANTITY, blockStart, previous + 1L, author, Long.MAX_VALUE);
+
+        // El bloque nuevo, con la fila en su sitio por id descendente
+        int[] block = new int[previous + 1];
+        int next = 0;
+        for (int i = blockStart; i < blockEnd; i++) {
+            if (next == i - blockStart && ids[sorted[i]] < ids[row]) {
+                block[next++] = row;
+            }
+            block[next++] = sorted[i];
+        }
+        if (next == previous) {
+            block[next] = row;
+        }
+
+        System.arraycopy(sorted, blockEnd, sorted, blockEnd + 1, count - blockEnd);
+        System.arraycopy(sorted, target, sorted, target + block.length, blockStart - target);
+        System.arraycopy(block, 0, sorted, target, block.length);
+        countByAuthor.put(author, previous + 1);
+    }
+
+    // Mueve una fila dentro del orden después de cambiar su clave
+    private void reposition(FeedOrder order, int row, Runnable change) {
+        int[] sorted = sortedRows.get(order);
+        int from = lowerBound(order, size, primaryKey(order, row), secondaryKey(order, row), ids[row]);
+        System.arraycopy(sorted, from + 1, sorted, from, size - from - 1);
+
+        change.run();
+
+        int count = size - 1;
+        int to = lowerBound(order, count, primaryKey(order, row), secondaryKey(order, row), ids[row]);
+        System.arraycopy(sorted, to, sorted, to + 1, count - to);
+        sorted[to] = row;
+    }
+
+    // Primera posición cuya fila no va antes de la clave
+    private int lowerBound(FeedOrder order, int count, long primary, long secondary, long id) {
+        return search(order, count, primary, secondary, id, 0);
+    }
+
+    // Primera posición cuya fila va después de la clave
+    private int firstAfter(FeedOrder order, int count, long primary, long secondary, long id) {
+        return search(order, count, primary, secondary, id, 1);
+    }
+
+    private int search(FeedOrder order, int count, long primary, long secondary, long id, int threshold) {
+        int[] sorted = sortedRows.get(order);
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToKey(order, sorted[mid], primary, secondary, id) >= threshold) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // Mayor que 0 si la fila va después de la clave en el feed
+    private int compareToKey(FeedOrder order, int row, long primary, long secondary, long id) {
+        int cmp = Long.compare(primaryKey(order, row), primary);
+        if (cmp == 0) {
+            cmp = Long.compare(secondaryKey(order, row), secondary);
+        }
+        if (cmp == 0) {
+            cmp = Long.compare(ids[row], id);
+        }
+        // El feed aleatorio es ascendente, el resto descendentes
+        return (order == FeedOrder.RANDOM) ? cmp : -cmp;
+    }
+
+    private long primaryKey(FeedOrder order, int row) {
+        return switch (order) {
+            case LIKE -> scores[row];
+            case USER -> authors[row];
+            case DATE -> dates[row];
+            case QUANTITY -> countByAuthor.getOrDefault(authors[row], 0);
+            case RANDOM -> randomKeys[row];
+        };
+    }
+
+    private long secondaryKey(FeedOrder order, int row) {
+        return (order == FeedOrder.QUANTITY) ? authors[row] : 0L;
+    }
+
+    private FeedKey keyOf(FeedOrder order, int row) {
+        return new IndexedKey(primaryKey(order, row), secondaryKey(order, row), ids[row]);
+    }
+
+    private FeedKey randomKeyOf(int row, long seed) {
+        return new IndexedKey((long) randomKeys[row], seed, ids[row]);
+    }
+
+    private static int valueOf(Integer value) {
+        return (value != null) ? value : 0;
+    }
+}
@@ -2,15 +2,21 @@ package com.gardengroup.agroplantationapp.service.implementation;
 
 import com.gardengroup.agroplantationapp.exception.UnauthorizedActionException;
 import com.gardengroup.agroplantationapp.model.dto.publication.*;
+import com.gardengroup.agroplantationapp.model.dto.vote.VoteResultDTO;
 import com.gardengroup.agroplantationapp.model.entity.*;
+import com.gardengroup.agroplantationapp.model.repository.ImageRepository;
 import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
-import com.gardengroup.agroplantationapp.service.implementation.VoteService.VoteAndPublicationDTO;
+import com.gardengroup.agroplantationapp.security.JwtPrincipal;
+import com.gardengroup.agroplantationapp.service.implementation.FeedPageCache.PageKey;
 import com.gardengroup.agroplantationapp.service.interfaces.IPublicationService;
 import com.gardengroup.agroplantationapp.service.interfaces.IUserService;
 import com.gardengroup.agroplantationapp.service.interfaces.IVoteService;
 import com.gardengroup.agroplantationapp.utils.Constants;
+import com.gardengroup.agroplantationapp.utils.FeedCursor;
+import com.gardengroup.agroplantationapp.utils.FeedOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import jakarta.transaction.Transactional;
@@ -24,9 +30,33 @@ public class PublicationService implements IPublicationService {
     @Autowired
     private PublicationRepository publicationRepository;
     @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
     private IUserService userService;
     @Autowired
     private IVoteService voteService;
+    @Autowired
+    private SecurityService securityService;
+    @Autowired
+    private RandomFeedService randomFeedService;
+    @Autowired
+    private AuthorStatsService authorStatsService;
+    @Autowired
+    private FeedCountService feedCountService;
+    @Autowired
+    private PublicationFeedIndex feedIndex;
+    @Autowired
+    private TopPublicationsCache topPublicationsCache;
+    @Autowired
+    private FeedPageCache feedPageCache;
+    @Autowired
+    private UserVoteCache userVoteCache;
+    @Autowired
+    private TrendingIndex trendingIndex;
+    @Autowired
+    private VoteCounter voteCounter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @Transactional
     public Publication savePublication(PublicationSaveDTO publicationDTO, String email) {
@@ -41,49 +71,120 @@ public class PublicationService implements IPublicationService {
         publication.setScore(0);
         // Inicializo la publicacion con estado pendiente
         publication.setAuthorizationStatus(new StateRequest(1L));
-        publication.setPublicationDate(LocalDateTime.now());
+        // DATETIME guarda segundos enteros, se trunca para que coincida con el índice
+        publication.setPublicationDate(LocalDateTime.now().withNano(0));
+        publication.setRandomKey(RandomFeedService.newRandomKey());
+        publication.setVersion(0L);
+        publication.setUpdatedAt(publication.getPublicationDate());
         publication.setPlantation(publication.getPlantation());
 
-        return publicationRepository.save(publication);
+        Publication publicationSaved = publicationRepository.save(publication);
+        authorStatsService.publicationAdded(user.getId());
+        feedCountService.invalidate();
+        feedIndex.publicationSaved(publicationSaved);
+        trendingIndex.publicationSaved(publicationSaved);
+        topPublicationsCache.invalidate();
+        feedPageCache.publicationSaved();
+
+        return publicationSaved;
+    }
+
+    // Único camino de borrado de publicaciones: no hay un DELETE en el
+    // repositorio para que nadie lo haga sin mantener el agregado y las cachés.
+    // Antes que las publicaciones se borran sus votos y su tabla de imágenes.
+    @Transactional
+    public int deletePublicationsByAuthor(Long authorId) {
+        jdbcTemplate.update("DELETE v FROM vote v JOIN publication p ON p.id = v.publication_id "
+                + "WHERE p.author_id = ?", authorId);
+        jdbcTemplate.update("DELETE pi FROM publication_images pi JOIN publication p ON p.id = pi.publication_id "
+                + "WHERE p.author_id = ?", authorId);
+        int deleted = jdbcTemplate.update("DELETE FROM publication WHERE author_id = ?", authorId);
+        authorStatsService.publicationsRemoved(authorId);
+        feedCountService.invalidate();
+        feedIndex.publicationsRemoved();
+        trendingIndex.publicationsRemoved();
+        topPublicationsCache.invalidate();
+        feedPageCache.publicationsRemoved();
+        return deleted;
     }
 
-    public List<Publication> getTopPublications() {
+    public List<PublicationSummary> getTopPublications() {
 
-        List<Publication> allPublications = publicationRepository.findTop6ByOrderByScoreDesc();
+        // Las 6 publicaciones con más likes, resueltas con el mismo seek del feed
+        List<FeedKey> keys = seekKeys(FeedCursor.first(FeedOrder.LIKE), Constants.TOP_PUBLICATIONS_SIZE);
 
-        if (allPublications.isEmpty()) {
+        if (keys.isEmpty()) {
             throw new DataAccessException(Constants.PS_NOT_FOUND) {
             };
         }
-        // Limitar la cantidad de publicaciones devueltas a exactamente 6
-        return allPublications.stream().limit(6).collect(Collectors.toList());
+
+        return findSummariesInOrder(keys);
     }
 
     @Transactional
     public PublicationDTO getPublication(Long publicationId, String email) {
 
-        User user = userService.findByEmail(email);
+        Long userId = userIdOf(email);
 
-        Publication publication = publicationRepository.findById(publicationId)
+        Publication publication = publicationRepository.findDetailById(publicationId)
                 .orElseThrow(() -> new DataAccessException(Constants.P_NOT_FOUND) {
                 });
 
         // Devolver si el usuario ya ha votado en esta publicación
-        Boolean voto = voteService.findByUserAndPublication(user.getId(), publicationId);
+        Boolean voto = voteService.findByUserAndPublication(userId, publicationId);
         PublicationDTO publicationDTO = new PublicationDTO(publication);
         publicationDTO.setUserVote(voto);
+        if (voteCounter.isWriteBehind()) {
+            // Votos ya confirmados que el contador aún no ha aplicado en la tabla
+            publicationDTO.setScore(valueOf(publicationDTO.getScore())
+                    + (int) voteCounter.pending(publicationId));
+        }
 
         return publicationDTO;
 
     }
 
+    public VoteResultDTO votePublication(Long publicationId, String email) {
+        return voteService.toggleVote(userIdOf(email), publicationId);
+    }
+
+    // ETag fuerte de una publicación para un usuario: cambia con la versión de la
+    // publicación, que incluye los cambios de score por votos. Recibe la versión
+    // que el controlador ya ha leído para no repetir la consulta.
+    public String getPublicationETag(Long publicationId, PublicationVersion version, String email) {
+        String etag = publicationId + "-" + version.getVersion() + "-" + Integer.toHexString(Objects.hashCode(email));
+        if (!voteCounter.isWriteBehind()) {
+            return etag;
+        }
+
+        // En write-behind un voto no cambia la versión hasta el flush: el voto del
+        // usuario y el delta pendiente también forman parte de la respuesta
+        boolean voted = voteService.findByUserAndPublication(userIdOf(email), publicationId);
+        return etag + "-" + (voted ? "v" : "n") + voteCounter.pending(publicationId);
+    }
+
+    public PublicationVersion getPublicationVersion(Long publicationId) {
+        return publicationRepository.findVersionById(publicationId)
+                .orElseThrow(() -> new DataAccessException(Constants.P_NOT_FOUND) {
+                });
+    }
+
+    // ETag de las páginas de los feeds para un usuario: cambia con cada
+    // invalidación de la caché de páginas (guardados, actualizaciones y votos) y
+    // con los votos del propio usuario, que alteran el userVote de las páginas
+    public String getFeedETag(String email) {
+        String votes = (email != null) ? userVoteCache.stampOf(userIdOf(email)) : "0";
+        return "feed-" + feedPageCache.generation() + "-" + votes + "-"
+                + Integer.toHexString(Objects.hashCode(email));
+    }
+
     @Transactional
-    public List<Publication> publicationsByEmail(String email) {
+    public List<PublicationSummary> publicationsByEmail(String email) {
 
-        final List<Publication> publications = publicationRepository.publicationsByEmail(email);
+        final List<PublicationSummary> publications = publicationRepository.summariesByEmail(email);
 
         if (!publications.isEmpty()) {
-            return publications;
+            return withMainImages(publications);
         }
 
         throw new DataAccessException(Constants.PS_NOT_FOUND) {
@@ -96,115 +197,285 @@ public class PublicationService implements IPublicationService {
 
         Publication publication = new Publication(publicationUpdDTO);
 
-        if (!publicationRepository.existsById(publication.getId())) {
-            throw new DataAccessException(Constants.P_NOT_FOUND) {
-            };
-        }
-
-        Publication publicationSaved = publicationRepository.findById(publication.getId()).get();
+        Publication publicationSaved = publicationRepository.findModerationById(publication.getId())
+                .orElseThrow(() -> new DataAccessException(Constants.P_NOT_FOUND) {
+                });
         publicationSaved.updateInfo(publication);
-        return publicationRepository.save(publicationSaved);
+        publicationSaved.touch();
+        publicationSaved = publicationRepository.save(publicationSaved);
+        feedIndex.publicationSaved(publicationSaved);
+        topPublicationsCache.invalidate();
+        feedPageCache.publicationChanged(publicationSaved.getId());
+
+        return publicationSaved;
+
+    }
+
+    @Transactional
+    public PublicationFilterDTO getPublicationsByLike(int pag, String email) {
+        return withUserVotes(getPublicationsByPage(FeedOrder.LIKE, pag), email);
+    }
 
+    @Transactional
+    public PublicationFilterDTO getPublicationsByUser(int pag, String email) {
+        return withUserVotes(getPublicationsByPage(FeedOrder.USER, pag), email);
     }
 
     @Transactional
-    public PublicationFilterDTO getPublicationsByLike(int pag) {
+    public PublicationFilterDTO getPublicationsByDate(int pag, String email) {
+        return withUserVotes(getPublicationsByPage(FeedOrder.DATE, pag), email);
+    }
+
+    @Transactional
+    public PublicationFilterDTO getPublicationsByAleatory(int pag, Long seed, String email) {
 
         if (pag < 1) {
             throw new IllegalArgumentException(Constants.PAGE_INVALID);
         }
 
-        int pagTop = 46;
-
-        // Buscar si hay 3 paginaciones más adelante de la actual (1 Paginacion = 15)
-        pag = (pag == 1) ? 0 : ((pag - 1) * Constants.PAGINATION_SIZE);
-        List<Publication> publications = publicationRepository.publicationsBylike(pag, pagTop);
+        // Sin semilla se inicia un recorrido nuevo, que no se cachea
+        if (seed == null) {
+            return withUserVotes(loadRandomPage(pag, RandomFeedService.newSeed()), email);
+        }
 
-        return returnPublicationsWithPagination(publications);
+        return withUserVotes(
+                feedPageCache.get(new PageKey(FeedOrder.RANDOM, pag, seed), () -> loadRandomPage(pag, seed)), email);
     }
 
+    // Feed de tendencias: la página se lee del índice ordenado en memoria, sin
+    // ordenar la tabla; no se cachea porque cambia con cada voto
     @Transactional
-    public PublicationFilterDTO getPublicationsByUser(int pag) {
+    public PublicationFilterDTO getTrendingPublications(int pag, String email) {
 
         if (pag < 1) {
             throw new IllegalArgumentException(Constants.PAGE_INVALID);
         }
+        if (!trendingIndex.isReady()) {
+            throw new DataAccessException(Constants.PS_NOT_FOUND) {
+            };
+        }
+
+        List<Long> ids = trendingIndex.page((pag - 1) * Constants.PAGINATION_SIZE, Constants.PAGINATION_SIZE);
+
+        return withUserVotes(returnPublicationsWithPagination(findSummariesByIds(ids), pag), email);
+    }
+
+    @Transactional
+    public PublicationFilterDTO getPublicationsByQuantity(int pag, String email) {
+        return withUserVotes(getPublicationsByPage(FeedOrder.QUANTITY, pag), email);
+    }
 
-        int pagTop = 46;
+    private PublicationFilterDTO loadRandomPage(int pag, long feedSeed) {
+
+        FeedCursor from = randomFeedService.firstCursor(feedSeed);
+        if (pag > 1) {
+            int position = (pag - 1) * Constants.PAGINATION_SIZE - 1;
+            Optional<FeedKey> previous;
+            if (feedIndex.isReady()) {
+                previous = feedIndex.randomKeyAt(feedSeed, position);
+            } else {
+                checkOffsetPage(pag);
+                previous = randomFeedService.keyAt(feedSeed, position);
+            }
+            from = previous
+                    .map(key -> new FeedCursor(FeedOrder.RANDOM, key))
+                    .orElseThrow(() -> new DataAccessException(Constants.PS_NOT_FOUND) {
+                    });
+        }
 
-        // Buscar si hay 3 paginaciones más adelante de la actual (1 Paginacion = 15)
-        pag = (pag == 1) ? 0 : ((pag - 1) * Constants.PAGINATION_SIZE);
-        List<Publication> publications = publicationRepository.publicationsByUser(pag, pagTop);
+        List<FeedKey> keys = seekKeys(from, Constants.PAGINATION_SIZE);
 
-        return returnPublicationsWithPagination(publications);
+        PublicationFilterDTO publications = returnPublicationsWithPagination(findSummariesInOrder(keys), pag);
+        publications.setSeed(feedSeed);
+        return publications;
     }
 
     @Transactional
-    public PublicationFilterDTO getPublicationsByDate(int pag) {
+    public FeedPageDTO getFeed(String order, String cursor, Long seed, String email) {
+
+        FeedOrder feedOrder = FeedOrder.fromPath(order);
+        boolean firstPage = (cursor == null || cursor.isBlank());
+        FeedCursor from;
+        if (!firstPage) {
+            from = FeedCursor.decode(cursor, feedOrder);
+        } else if (feedOrder == FeedOrder.RANDOM) {
+            from = randomFeedService.firstCursor((seed != null) ? seed : RandomFeedService.newSeed());
+        } else {
+            from = FeedCursor.first(feedOrder);
+        }
+
+        // Se pide una clave de más para saber si existe una página siguiente
+        List<FeedKey> keys = seekKeys(from, Constants.PAGINATION_SIZE + 1);
+
+        if (keys.isEmpty() && firstPage) {
+            throw new DataAccessException(Constants.PS_NOT_FOUND) {
+            };
+        }
+
+        String nextCursor = null;
+        if (keys.size() > Constants.PAGINATION_SIZE) {
+            keys = keys.subList(0, Constants.PAGINATION_SIZE);
+            nextCursor = new FeedCursor(feedOrder, keys.get(keys.size() - 1)).encode();
+        }
+
+        return new FeedPageDTO(withUserVotes(findSummariesInOrder(keys), email), nextCursor);
+    }
+
+    // Funciones reutilizables:
+
+    // Paginación por número apoyada en los cursores: se localiza la clave de la
+    // última publicación de la página anterior y desde ella se hace el seek
+    private PublicationFilterDTO getPublicationsByPage(FeedOrder order, int pag) {
 
         if (pag < 1) {
             throw new IllegalArgumentException(Constants.PAGE_INVALID);
         }
 
-        int pagTop = 46;
+        return feedPageCache.get(new PageKey(order, pag, null), () -> loadPage(order, pag));
+    }
 
-        // Buscar si hay 3 paginaciones más adelante de la actual (1 Paginacion = 15)
-        pag = (pag == 1) ? 0 : ((pag - 1) * Constants.PAGINATION_SIZE);
-        List<Publication> publications = publicationRepository.publicationsByDate(pag, pagTop);
+    private PublicationFilterDTO loadPage(FeedOrder order, int pag) {
 
-        return returnPublicationsWithPagination(publications);
+        FeedCursor from = FeedCursor.first(order);
+        if (pag > 1) {
+            int position = (pag - 1) * Constants.PAGINATION_SIZE - 1;
+            from = keyAt(order, pag, position)
+                    .map(key -> new FeedCursor(order, key))
+                    .orElseThrow(() -> new DataAccessException(Constants.PS_NOT_FOUND) {
+                    });
+        }
+
+        List<FeedKey> keys = seekKeys(from, Constants.PAGINATION_SIZE);
+
+        return returnPublicationsWithPagination(findSummariesInOrder(keys), pag);
     }
 
-    @Transactional
-    public PublicationFilterDTO getPublicationsByAleatory(int pag) {
+    // Las páginas se resuelven en el índice en memoria cuando está cargado y, si
+    // no, con las consultas seek de base de datos
+    private List<FeedKey> seekKeys(FeedCursor from, int limit) {
+        if (feedIndex.isReady()) {
+            return feedIndex.seek(from, limit);
+        }
 
-        if (pag < 1) {
-            throw new IllegalArgumentException(Constants.PAGE_INVALID);
+        return switch (from.getOrder()) {
+            case LIKE -> publicationRepository.seekByLike(from.getPrimaryKey(), from.getId(), limit);
+            case USER -> publicationRepository.seekByUser(from.getPrimaryKey(), from.getId(), limit);
+            case DATE -> publicationRepository.seekByDate(from.getPrimaryKey(), from.getId(), limit);
+            case QUANTITY -> authorStatsService.seek(from, limit);
+            case RANDOM -> randomFeedService.seek(from, limit);
+        };
+    }
+
+    private Optional<FeedKey> keyAt(FeedOrder order, int pag, int position) {
+        if (feedIndex.isReady() && order != FeedOrder.RANDOM) {
+            return feedIndex.keyAt(order, position);
+        }
+
+        checkOffsetPage(pag);
+        return switch (order) {
+            case LIKE -> publicationRepository.keyAtByLike(position);
+            case USER -> publicationRepository.keyAtByUser(position);
+            case DATE -> publicationRepository.keyAtByDate(position);
+            case QUANTITY -> authorStatsService.keyAt(position);
+            // El feed aleatorio necesita la semilla, ver getPublicationsByAleatory
+            case RANDOM -> throw new IllegalArgumentException(Constants.FEED_INVALID);
+        };
+    }
+
+    // Sin índice en memoria la clave de inicio se busca con LIMIT 1 OFFSET, que
+    // recorre el índice del orden hasta la posición; las páginas profundas se
+    // rechazan y deben pedirse con el feed por cursor (/feed/{order})
+    private static void checkOffsetPage(int pag) {
+        if (pag > Constants.MAX_OFFSET_PAGE) {
+            throw new IllegalArgumentException(Constants.PAGE_TOO_DEEP);
+        }
+    }
+
+    // Id del usuario desde el token de la petición si corresponde al email; si
+    // no (tokens antiguos sin id), desde la base de datos
+    private Long userIdOf(String email) {
+        JwtPrincipal principal = securityService.currentPrincipal();
+        if (principal != null && principal.userId() != null && principal.email().equals(email)) {
+            return principal.userId();
         }
+        return userService.findByEmail(email).getId();
+    }
 
-        int pagTop = 46;
+    // Las páginas cacheadas son compartidas: el voto del usuario se añade sobre una
+    // copia, con una sola consulta para toda la página
+    private PublicationFilterDTO withUserVotes(PublicationFilterDTO page, String email) {
+        PublicationFilterDTO userPage = new PublicationFilterDTO(withUserVotes(page.getPublications(), email),
+                page.getPagination());
+        userPage.setSeed(page.getSeed());
+        return userPage;
+    }
 
-        // Buscar si hay 3 paginaciones más adelante de la actual (1 Paginacion = 15)
-        pag = (pag == 1) ? 0 : ((pag - 1) * Constants.PAGINATION_SIZE);
-        List<Publication> publications = publicationRepository.publicationsByAleatory(pag, pagTop);
+    private List<PublicationSummary> withUserVotes(List<PublicationSummary> publications, String email) {
+        if (email == null || publications.isEmpty()) {
+            return publications;
+        }
 
-        return returnPublicationsWithPagination(publications);
+        Set<Long> voted = voteService.votedAmong(userIdOf(email),
+                publications.stream().map(PublicationSummary::getId).collect(Collectors.toList()));
+
+        return publications.stream()
+                .map(summary -> summary.withUserVote(voted.contains(summary.getId())))
+                .collect(Collectors.toList());
     }
 
-    @Transactional
-    public PublicationFilterDTO getPublicationsByQuantity(int pag) {
+    // Carga los resúmenes de las claves con una sola proyección, manteniendo el
+    // orden del feed
+    private List<PublicationSummary> findSummariesInOrder(List<FeedKey> keys) {
+        return findSummariesByIds(keys.stream().map(FeedKey::getId).collect(Collectors.toList()));
+    }
 
-        if (pag < 1) {
-            throw new IllegalArgumentException(Constants.PAGE_INVALID);
+    private List<PublicationSummary> findSummariesByIds(List<Long> ids) {
+
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        int pagTop = 46;
+        Map<Long, PublicationSummary> summariesById = publicationRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(PublicationSummary::getId, summary -> summary));
 
-        // Buscar si hay 3 paginaciones más adelante de la actual (1 Paginacion = 15)
-        pag = (pag == 1) ? 0 : ((pag - 1) * Constants.PAGINATION_SIZE);
-        List<Publication> publications = publicationRepository.publicationsByQuantity(pag, pagTop);
+        List<PublicationSummary> summaries = ids.stream()
+                .map(summariesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
 
-        return returnPublicationsWithPagination(publications);
+        return withMainImages(summaries);
     }
 
-    // Funciones reutilizables:
+    // Resuelve las imágenes principales de toda la página en una sola consulta
+    private List<PublicationSummary> withMainImages(List<PublicationSummary> summaries) {
 
-    private PublicationFilterDTO returnPublicationsWithPagination(List<Publication> publications) {
+        Set<String> imageIds = summaries.stream()
+                .map(PublicationSummary::getMainImageId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
 
-        if (publications.isEmpty()) {
-            throw new DataAccessException(Constants.PS_NOT_FOUND) {
-            };
+        if (!imageIds.isEmpty()) {
+            Map<String, Image> imagesById = imageRepository.findAllById(imageIds).stream()
+                    .collect(Collectors.toMap(Image::getId, image -> image));
+            summaries.forEach(summary -> summary.setMainImage(imagesById.get(summary.getMainImageId())));
         }
 
-        // Calcular número posible de paginaciones que hay en base de datos
-        Double paginationDouble = (double) publications.size() / Constants.PAGINATION_SIZE;
-        int pagination = (int) (Math.ceil(paginationDouble) - 1);
+        return summaries;
+    }
+
+    private static int valueOf(Integer value) {
+        return (value != null) ? value : 0;
+    }
+
+    private PublicationFilterDTO returnPublicationsWithPagination(List<PublicationSummary> publications, int pag) {
 
-        if (publications.size() > Constants.PAGINATION_SIZE) {
-            // Enviar solo 15 publicaciones que necesita el front
-            publications = publications.subList(0, Constants.PAGINATION_SIZE);
+        if (publications.isEmpty()) {
+            throw new DataAccessException(Constants.PS_NOT_FOUND) {
+            };
         }
 
-        return new PublicationFilterDTO(publications, pagination);
+        // Número posible de paginaciones siguientes, calculado a partir del total
+        // cacheado en lugar de traer las publicaciones de las páginas siguientes
+        return new PublicationFilterDTO(publications, feedCountService.followingPages(pag));
     }
 }
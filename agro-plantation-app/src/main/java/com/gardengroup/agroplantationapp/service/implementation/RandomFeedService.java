@@ -0,0 +1,106 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.dto.publication.FeedKey;
+import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
+import com.gardengroup.agroplantationapp.utils.FeedCursor;
+import com.gardengroup.agroplantationapp.utils.FeedOrder;
+
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feed aleatorio sin ORDER BY RAND(). Cada publicación guarda una clave
+ * aleatoria indexada (random_key) asignada al crearse; una semilla elige un
+ * punto de inicio en ese espacio de claves y el feed se recorre en orden de
+ * clave desde ahí, dando la vuelta al llegar al final. Así la página N de una
+ * semilla es siempre la misma, nunca repite publicaciones anteriores y cada
+ * página cuesta un seek sobre el índice (random_key, id).
+ */
+@Service
+@Slf4j
+public class RandomFeedService {
+
+    // Límite superior exclusivo del espacio de claves aleatorias
+    public static final long RANDOM_KEY_BOUND = Integer.MAX_VALUE;
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    public static int newRandomKey() {
+        return ThreadLocalRandom.current().nextInt(0, Integer.MAX_VALUE);
+    }
+
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong(0, Long.MAX_VALUE);
+    }
+
+    // Punto de inicio de la semilla dentro del espacio de claves
+    public static long startOf(long seed) {
+        return new SplittableRandom(seed).nextLong(0, RANDOM_KEY_BOUND);
+    }
+
+    public FeedCursor firstCursor(long seed) {
+        return new FeedCursor(FeedOrder.RANDOM, startOf(seed), seed, 0L);
+    }
+
+    public List<FeedKey> seek(FeedCursor from, int limit) {
+
+        long seed = from.getSecondaryKey();
+        long start = startOf(seed);
+        List<FeedKey> keys = new ArrayList<>();
+
+        // Primera vuelta: claves desde el inicio de la semilla hasta el final
+        if (from.getPrimaryKey() >= start) {
+            keys.addAll(publicationRepository.seekByRandom(from.getPrimaryKey(), from.getId(), start,
+                    RANDOM_KEY_BOUND, seed, limit));
+
+            if (keys.size() < limit) {
+                keys.addAll(publicationRepository.seekByRandom(-1L, 0L, 0L, start, seed, limit - keys.size()));
+            }
+            return keys;
+        }
+
+        // Segunda vuelta: claves anteriores al inicio de la semilla
+        keys.addAll(publicationRepository.seekByRandom(from.getPrimaryKey(), from.getId(), 0L, start, seed, limit));
+        return keys;
+    }
+
+    // Clave en una posición del recorrido de la semilla, para las paginaciones por
+    // número
+    public Optional<FeedKey> keyAt(long seed, int position) {
+
+        long start = startOf(seed);
+        Optional<FeedKey> key = publicationRepository.keyAtByRandom(start, RANDOM_KEY_BOUND, seed, position);
+
+        if (key.isPresent()) {
+            return key;
+        }
+
+        long firstLap = publicationRepository.countByRandomRange(start, RANDOM_KEY_BOUND);
+        return publicationRepository.keyAtByRandom(0L, start, seed, (int) (position - firstLap));
+    }
+
+    // Asigna clave aleatoria a las publicaciones creadas antes de existir la columna
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void assignMissingRandomKeys() {
+        int updated = publicationRepository.assignMissingRandomKeys(RANDOM_KEY_BOUND);
+        if (updated > 0) {
+            log.info("Random feed keys assigned to {} publications", updated);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gardengroup.agroplantationapp.model.dto.publication.ScoreDrift;
+import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reconciliación del score de las publicaciones con sus filas de vote. Recorre
+ * la tabla publication por rangos de id en un pool acotado de hilos
+ * (vote.reconcile.threads), recuenta los votos de cada rango con una consulta
+ * agrupada y corrige en lote solo las publicaciones desfasadas. Se ejecuta
+ * según vote.reconcile.cron y bajo demanda desde el endpoint de administración.
+ */
+@Service
+@Slf4j
+public class ScoreReconciliationService {
+
+    public record Report(long publications, int chunks, int failedChunks, int drifted, long totalDrift,
+            int fixed, long millis, double publicationsPerSecond) {
+    }
+
+    private record ChunkResult(int drifted, long totalDrift, int fixed) {
+    }
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private VoteCounter voteCounter;
+    @Autowired
+    private PublicationFeedIndex feedIndex;
+    @Autowired
+    private TopPublicationsCache topPublicationsCache;
+    @Autowired
+    private FeedPageCache feedPageCache;
+    @Autowired
+    private LiveScoreService liveScoreService;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final int chunkSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ScoreReconciliationService(PlatformTransactionManager transactionManager,
+            @Value("${vote.reconcile.threads:4}") int threads,
+            @Value("${vote.reconcile.chunk-size:1000}") int chunkSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+
+        // Cola acotada: si los hilos no dan abasto, el hilo que reparte los rangos
+        // procesa el siguiente en lugar de acumularlos en memoria
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                runnable -> new Thread(runnable, "score-reconcile-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Scheduled(cron = "${vote.reconcile.cron:0 30 4 * * *}")
+    public void scheduledReconcile() {
+        if (reconcile().isEmpty()) {
+            log.warn("Score reconciliation skipped, another run is in progress");
+        }
+    }
+
+    // Vacío si ya hay una reconciliación en curso
+    public Optional<Report> reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+
+        try {
+            long start = System.nanoTime();
+            // Los deltas pendientes del modo write-behind se aplican antes de comparar
+            if (voteCounter.isWriteBehind()) {
+                voteCounter.flush();
+            }
+
+            long publications = publicationRepository.count();
+            long minId = publicationRepository.findMinId();
+            long maxId = publicationRepository.findMaxId();
+
+            List<Future<ChunkResult>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + chunkSize, maxId + 1);
+                chunks.add(workers.submit(() -> reconcileChunk(chunkFrom, chunkTo)));
+            }
+
+            int failedChunks = 0;
+            int drifted = 0;
+            long totalDrift = 0;
+            int fixed = 0;
+            for (Future<ChunkResult> chunk : chunks) {
+                try {
+                    ChunkResult result = chunk.get();
+                    drifted += result.drifted();
+                    totalDrift += result.totalDrift();
+                    fixed += result.fixed();
+                } catch (ExecutionException e) {
+                    failedChunks++;
+                    log.error("Score reconciliation chunk failed: {}", e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failedChunks++;
+                }
+            }
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Report report = new Report(publications, chunks.size(), failedChunks, drifted, totalDrift, fixed,
+                    millis, publications * 1000.0 / Math.max(1, millis));
+            log.info("Score reconciliation: {} publications in {} ms ({} publications/s), {} drifted by {} votes, "
+                    + "{} fixed, {} of {} chunks failed", publications, millis,
+                    String.format("%.1f", report.publicationsPerSecond()), drifted, totalDrift, fixed, failedChunks,
+                    chunks.size());
+            return Optional.of(report);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ChunkResult reconcileChunk(long from, long to) {
+        return transactionTemplate.execute(status -> {
+            List<ScoreDrift> drifts = publicationRepository.findScoreDrift(from, to);
+            LocalDateTime now = LocalDateTime.now().withNano(0);
+
+            List<ScoreDrift> candidates = new ArrayList<>();
+            List<Object[]> batch = new ArrayList<>();
+            long totalDrift = 0;
+            for (ScoreDrift drift : drifts) {
+                // Con votos aún en el contador write-behind, en un flush sin
+                // confirmar o confirmándose sin haber llegado al contador, el
+                // desfase es esperado
+                if (voteCounter.isWriteBehind() && !voteCounter.isSettled(drift.getId())) {
+                    continue;
+                }
+                int score = (drift.getScore() != null) ? drift.getScore() : 0;
+                totalDrift += Math.abs(drift.getVotes() - score);
+                candidates.add(drift);
+                batch.add(new Object[] { drift.getVotes(), now, drift.getId(), score });
+            }
+
+            if (batch.isEmpty()) {
+                return new ChunkResult(0, 0, 0);
+            }
+
+            // Solo se corrige si el score no ha cambiado desde la lectura; un voto
+            // simultáneo deja la fila para la siguiente ejecución
+            int[] updated = jdbcTemplate.batchUpdate("UPDATE publication SET score = ?, "
+                    + "version = COALESCE(version, 0) + 1, updated_at = ? WHERE id = ? AND COALESCE(score, 0) = ?",
+                    batch);
+
+            int fixed = 0;
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] != 0) {
+                    ScoreDrift drift = candidates.get(i);
+                    int score = drift.getVotes().intValue();
+                    feedIndex.scoreChanged(drift.getId(), score);
+                    topPublicationsCache.scoreChanged(drift.getId(), score);
+                    feedPageCache.scoreChanged(drift.getId());
+                    liveScoreService.scoreChanged(drift.getId(), score);
+                    fixed++;
+                }
+            }
+            return new ChunkResult(candidates.size(), totalDrift, fixed);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -7,9 +7,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.gardengroup.agroplantationapp.model.dto.user.LoginDTO;
+import com.gardengroup.agroplantationapp.security.ConstantSecurity;
 import com.gardengroup.agroplantationapp.security.JwtAuthenticationFilter;
+import com.gardengroup.agroplantationapp.security.JwtPrincipal;
 import com.gardengroup.agroplantationapp.security.JwtTokenProvider;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,8 +31,33 @@ public class SecurityService {
     private AuthenticationManager authenticationManager;
 
     public String getEmail(HttpServletRequest request) {
+        return getPrincipal(request).email();
+    }
+
+    // Usuario que dejó el filtro JWT en la petición; si no pasó por el filtro se
+    // valida el token aquí
+    public JwtPrincipal getPrincipal(HttpServletRequest request) {
+        if (request.getAttribute(ConstantSecurity.JWT_PRINCIPAL_ATTRIBUTE) instanceof JwtPrincipal principal) {
+            return principal;
+        }
         String token = jwtAuthenticationFilter.getRequestToken(request);
-        return jwtTokenProvider.getJwtUser(token);
+        return jwtTokenProvider.verify(token).principal();
+    }
+
+    // Usuario de la petición en curso, para los servicios que no reciben la
+    // petición; null fuera de una petición autenticada
+    public JwtPrincipal currentPrincipal() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(ConstantSecurity.JWT_PRINCIPAL_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST) instanceof JwtPrincipal principal) {
+            return principal;
+        }
+        return null;
+    }
+
+    // Revoca el token de la petición hasta su expiración
+    public void logout(HttpServletRequest request) {
+        jwtTokenProvider.revoke(jwtAuthenticationFilter.getRequestToken(request));
     }
 
     public String passwordEncoder(String password) {
@@ -0,0 +1,240 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+import com.gardengroup.agroplantationapp.service.interfaces.IAuditSink;
+import com.gardengroup.agroplantationapp.utils.AuditSegmentFormat;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Destino de auditoría en ficheros (audit.sink=segment), para no cargar MySQL
+ * con tasas de peticiones muy altas. Los registros se añaden en formato binario
+ * con CRC (ver AuditSegmentFormat) a segmentos de tamaño fijo
+ * (audit.segment.size-bytes) mapeados en memoria dentro de audit.segment.dir;
+ * cuando uno se llena se abre el siguiente. Cada audit.segment.fsync-ms se
+ * fuerza a disco lo escrito.
+ *
+ * Al arrancar se continúa el último segmento tras su último registro válido,
+ * así que una caída solo pierde lo que no se había forzado a disco. Los
+ * segmentos se leen con AuditSegmentReader y se exportan a NDJSON con
+ * AuditSegmentExport.
+ *
+ * Los segmentos cerrados se borran cuando superan audit.retention-days (la
+ * misma retención que las particiones de audit_log) o cuando hay más de
+ * audit.segment.max-segments; 0 desactiva cada límite.
+ */
+@Service
+@ConditionalOnProperty(name = "audit.sink", havingValue = "segment")
+@Slf4j
+public class SegmentAuditSink implements IAuditSink {
+
+    // Unsafe.invokeCleaner libera un mapeo sin esperar al GC; null si el JDK no lo ofrece
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Audit segments will be unmapped by the GC: {}", e.getMessage());
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int retentionDays;
+    private final int maxSegments;
+
+    private long sequence;
+    private MappedByteBuffer segment;
+    private boolean dirty;
+
+    public SegmentAuditSink(@Value("${audit.segment.dir:data/audit}") String directory,
+            @Value("${audit.segment.size-bytes:67108864}") int segmentSize,
+            @Value("${audit.retention-days:90}") int retentionDays,
+            @Value("${audit.segment.max-segments:0}") int maxSegments) {
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSize;
+        this.retentionDays = retentionDays;
+        this.maxSegments = maxSegments;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = AuditSegmentFormat.segments(directory);
+        if (segments.isEmpty()) {
+            roll(1);
+            return;
+        }
+
+        Path last = segments.get(segments.size() - 1);
+        sequence = AuditSegmentFormat.sequenceOf(last);
+        segment = map(last, Files.size(last));
+        if (!AuditSegmentFormat.validHeader(segment)) {
+            log.warn("Audit segment {} has an invalid header, starting a new one", last);
+            roll(sequence + 1);
+            return;
+        }
+
+        segment.position(AuditSegmentFormat.HEADER_SIZE);
+        long records = 0;
+        while (AuditSegmentFormat.next(segment) != null) {
+            records++;
+        }
+        // Restos de un registro a medio escribir: se limpian para no confundirlos con datos
+        if (segment.remaining() >= Integer.BYTES && segment.getInt(segment.position()) != 0) {
+            log.warn("Discarding a torn record at offset {} of {}", segment.position(), last);
+            for (int i = segment.position(); i < segment.limit(); i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.force();
+        }
+        log.info("Appending to audit segment {} after {} records", last, records);
+        applyRetention();
+    }
+
+    @Override
+    public synchronized void write(List<AuditRecord> batch) {
+        if (segment == null) {
+            throw new IllegalStateException("Audit segment sink is closed");
+        }
+        for (AuditRecord record : batch) {
+            byte[] payload = AuditSegmentFormat.encode(record);
+            int needed = AuditSegmentFormat.RECORD_OVERHEAD + payload.length;
+            if (needed > segmentSize - AuditSegmentFormat.HEADER_SIZE) {
+                log.warn("Skipping an audit record of {} bytes, larger than a segment", needed);
+                continue;
+            }
+            if (needed > segment.remaining()) {
+                roll(sequence + 1);
+            }
+            AuditSegmentFormat.write(segment, payload);
+            dirty = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.segment.fsync-ms:1000}")
+    public synchronized void sync() {
+        if (segment != null && dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.segment.retention-check-ms:3600000}")
+    public synchronized void applyRetention() {
+        if (segment == null || (retentionDays <= 0 && maxSegments <= 0)) {
+            return;
+        }
+
+        try {
+            List<Path> segments = AuditSegmentFormat.segments(directory);
+            Instant cutoff = Instant.now().minus(Duration.ofDays(Math.max(0, retentionDays)));
+            int remaining = segments.size();
+            for (Path file : segments) {
+                // El segmento abierto nunca se borra
+                if (AuditSegmentFormat.sequenceOf(file) >= sequence) {
+                    break;
+                }
+                boolean tooMany = maxSegments > 0 && remaining > maxSegments;
+                boolean expired = retentionDays > 0
+                        && Files.getLastModifiedTime(file).compareTo(FileTime.from(cutoff)) < 0;
+                if (!tooMany && !expired) {
+                    // Los segmentos van en orden de escritura: los siguientes son más nuevos
+                    break;
+                }
+                Files.deleteIfExists(file);
+                remaining--;
+                log.info("Deleted audit segment {}", file);
+            }
+        } catch (IOException e) {
+            log.error("Audit segment retention failed: {}", e.getMessage());
+        }
+    }
+
+    // Cierra el segmento actual y abre uno nuevo, vacío, con el número indicado
+    private void roll(long nextSequence) {
+        try {
+            if (segment != null) {
+                segment.force();
+            }
+            Path file = directory.resolve(AuditSegmentFormat.fileName(nextSequence));
+            MappedByteBuffer next = map(file, segmentSize);
+            AuditSegmentFormat.writeHeader(next, nextSequence);
+            next.position(AuditSegmentFormat.HEADER_SIZE);
+            next.force();
+
+            MappedByteBuffer previous = segment;
+            segment = next;
+            sequence = nextSequence;
+            dirty = false;
+            // Sin esto, cada segmento cerrado seguiría mapeado hasta que pase el GC
+            unmap(previous);
+            log.info("Opened audit segment {}", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        applyRetention();
+    }
+
+    // El mapeo sigue siendo válido después de cerrar el canal
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    // Solo se llama con el monitor tomado y sin más referencias al buffer: un
+    // acceso posterior leería memoria ya liberada
+    private static void unmap(MappedByteBuffer buffer) {
+        if (buffer == null || INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Could not unmap an audit segment: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (segment != null) {
+            segment.force();
+            unmap(segment);
+            segment = null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationSummary;
+import com.gardengroup.agroplantationapp.utils.AfterCommit;
+import com.gardengroup.agroplantationapp.utils.Constants;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Respuesta ya serializada del endpoint público de publicaciones principales.
+ * Guarda el JSON en UTF-8 y su variante gzip, de modo que cada visita a la
+ * landing se sirve desde memoria. Solo se reconstruye cuando un voto, una
+ * publicación nueva o un cambio de visibilidad pueden alterar el ranking.
+ */
+@Service
+@Slf4j
+public class TopPublicationsCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile CachedResponse cached;
+    // Cambia con cada invalidación para descartar reconstrucciones que se
+    // solapan con una escritura
+    private final AtomicLong generation = new AtomicLong();
+
+    public record CachedResponse(byte[] json, byte[] gzip, String etag, Set<Long> ids, int minScore,
+            boolean full) {
+
+        // Las dos codificaciones son representaciones distintas y necesitan su
+        // propio ETag fuerte
+        public String etag(boolean gzipped) {
+            return gzipped ? etag + "-gz" : etag;
+        }
+    }
+
+    public CachedResponse get(Supplier<List<PublicationSummary>> loader) {
+        CachedResponse current = cached;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = cached;
+            if (current != null) {
+                return current;
+            }
+
+            long buildGeneration = generation.get();
+            current = build(loader.get());
+            if (generation.get() == buildGeneration) {
+                cached = current;
+            }
+            return current;
+        }
+    }
+
+    // Un cambio de score solo invalida si la publicación está en el top o puede
+    // entrar en él
+    public void scoreChanged(Long publicationId, int score) {
+        AfterCommit.run(() -> {
+            CachedResponse current = cached;
+            if (current == null || current.ids().contains(publicationId) || !current.full()
+                    || score >= current.minScore()) {
+                invalidateNow();
+            }
+        });
+    }
+
+    public void invalidate() {
+        AfterCommit.run(this::invalidateNow);
+    }
+
+    private void invalidateNow() {
+        generation.incrementAndGet();
+        cached = null;
+    }
+
+    private CachedResponse build(List<PublicationSummary> publications) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(publications);
+            Set<Long> ids = publications.stream().map(PublicationSummary::getId).collect(Collectors.toSet());
+            int minScore = publications.stream()
+                    .mapToInt(publication -> publication.getScore() != null ? publication.getScore() : 0)
+                    .min()
+                    .orElse(0);
+            boolean full = publications.size() >= Constants.TOP_PUBLICATIONS_SIZE;
+
+            log.debug("Top publications response rebuilt ({} bytes)", json.length);
+            CRC32 checksum = new CRC32();
+            checksum.update(json);
+            String etag = "top-" + Long.toHexString(checksum.getValue()) + "-" + json.length;
+
+            return new CachedResponse(json, gzip(json), etag, ids, minScore, full);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+}
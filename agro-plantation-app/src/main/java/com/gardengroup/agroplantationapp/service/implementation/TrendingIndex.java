@@ -0,0 +1,244 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.dto.publication.TrendingRow;
+import com.gardengroup.agroplantationapp.model.entity.Publication;
+import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
+import com.gardengroup.agroplantationapp.utils.AfterCommit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice en memoria del feed de tendencias. Cada voto (y la propia publicación)
+ * aporta un peso que decae exponencialmente con una vida media de
+ * feed.trending.half-life-hours. Como todos los pesos decaen al mismo ritmo, se
+ * guardan escalados a una época fija: el orden no cambia con el paso del tiempo
+ * y un voto solo mueve su publicación en el skip list, en O(log n). Cuando los
+ * pesos crecen demasiado se reescalan a una época nueva.
+ */
+@Service
+@Slf4j
+public class TrendingIndex {
+
+    // exp(300) sigue lejos del máximo de un double
+    private static final double MAX_EXPONENT = 300;
+
+    private record Entry(double weight, long id) {
+    }
+
+    // Mayor peso primero; a igual peso, la publicación más nueva
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::weight).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::id).reversed());
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+
+    private final double lambda;
+
+    // Se sustituye entero al recargar o reescalar, así una lectura recorre
+    // siempre un ranking completo. El resto del estado se protege con el monitor.
+    private volatile ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private Map<Long, Double> weights = new HashMap<>();
+    private long epoch;
+    // Cambios confirmados durante una recarga en curso, en orden; null si no hay
+    // recarga
+    private List<Runnable> pendingChanges;
+    private final Object reloadMonitor = new Object();
+
+    private volatile boolean ready;
+
+    public TrendingIndex(@Value("${feed.trending.half-life-hours:24}") double halfLifeHours) {
+        this.lambda = Math.log(2) / (halfLifeHours * 3600);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void hydrate() {
+        reload();
+    }
+
+    // La consulta se hace sin bloquear los votos; los que confirman mientras tanto
+    // se guardan y se aplican sobre el ranking nuevo. Un voto que confirma justo
+    // cuando empieza la consulta puede contarse dos veces hasta la siguiente
+    // recarga, pero ninguno se pierde
+    public void reload() {
+        synchronized (reloadMonitor) {
+            long newEpoch = now();
+            synchronized (this) {
+                pendingChanges = new ArrayList<>();
+            }
+
+            List<TrendingRow> rows;
+            try {
+                rows = publicationRepository.findTrendingRows(lambda, newEpoch);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingChanges = null;
+                }
+                throw e;
+            }
+
+            ConcurrentSkipListSet<Entry> loaded = new ConcurrentSkipListSet<>(ORDER);
+            Map<Long, Double> loadedWeights = new HashMap<>(rows.size() * 2);
+            for (TrendingRow row : rows) {
+                double weight = (row.getWeight() != null) ? row.getWeight() : 0;
+                loadedWeights.put(row.getId(), weight);
+                loaded.add(new Entry(weight, row.getId()));
+            }
+
+            int replayed;
+            synchronized (this) {
+                weights = loadedWeights;
+                epoch = newEpoch;
+                ranking = loaded;
+                ready = true;
+
+                replayed = pendingChanges.size();
+                pendingChanges.forEach(Runnable::run);
+                pendingChanges = null;
+            }
+
+            log.info("Trending index loaded with {} publications ({} concurrent changes replayed)", rows.size(),
+                    replayed);
+        }
+    }
+
+    // Ids de la página pedida, recorriendo el skip list sin bloquear. Una
+    // actualización inserta la entrada nueva antes de quitar la anterior, así
+    // que una lectura simultánea puede ver la publicación dos veces pero nunca
+    // perderla; los repetidos se descartan
+    public List<Long> page(int offset, int limit) {
+        ConcurrentSkipListSet<Entry> current = ranking;
+        List<Long> ids = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        int skipped = 0;
+        for (Entry entry : current) {
+            if (!seen.add(entry.id())) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            ids.add(entry.id());
+            if (ids.size() == limit) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    // Escrituras, se aplican cuando la transacción que las origina confirma
+
+    public void voteChanged(Long publicationId, int delta) {
+        long at = now();
+        AfterCommit.run(() -> apply(() -> add(publicationId, delta, at)));
+    }
+
+    public void publicationSaved(Publication publication) {
+        Long id = publication.getId();
+        long date = publication.getPublicationDate().toEpochSecond(ZoneOffset.UTC);
+        AfterCommit.run(() -> apply(() -> {
+            if (!weights.containsKey(id)) {
+                rebaseIfNeeded(date);
+                put(id, unit(date));
+            }
+        }));
+    }
+
+    // Los borrados son poco frecuentes, se recarga el índice completo
+    public void publicationsRemoved() {
+        AfterCommit.run(() -> {
+            if (ready) {
+                reload();
+            }
+        });
+    }
+
+    // Funciones internas, llamadas con el monitor tomado
+
+    // Aplica un cambio al ranking cargado y, si hay una recarga en curso, lo
+    // guarda para repetirlo sobre el ranking que esta construya
+    private synchronized void apply(Runnable change) {
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+        if (ready) {
+            change.run();
+        }
+    }
+
+    private void add(Long publicationId, int delta, long at) {
+        Double current = weights.get(publicationId);
+        if (current == null) {
+            return;
+        }
+
+        if (rebaseIfNeeded(at)) {
+            current = weights.get(publicationId);
+        }
+
+        // Al retirar un voto no se conoce cuándo se emitió; se descuenta su peso
+        // actual sin bajar de cero
+        put(publicationId, Math.max(0, current + delta * unit(at)));
+    }
+
+    private void put(Long publicationId, double weight) {
+        Double previous = weights.put(publicationId, weight);
+        ranking.add(new Entry(weight, publicationId));
+        if (previous != null && previous != weight) {
+            ranking.remove(new Entry(previous, publicationId));
+        }
+    }
+
+    // Reescala todos los pesos a una época nueva en un ranking aparte y lo
+    // publica de una vez; no cambia el orden
+    private boolean rebaseIfNeeded(long newEpoch) {
+        if (lambda * (newEpoch - epoch) <= MAX_EXPONENT) {
+            return false;
+        }
+
+        double factor = Math.exp(-lambda * (newEpoch - epoch));
+        ConcurrentSkipListSet<Entry> rebased = new ConcurrentSkipListSet<>(ORDER);
+        Map<Long, Double> rebasedWeights = new HashMap<>(weights.size() * 2);
+        weights.forEach((id, weight) -> {
+            rebasedWeights.put(id, weight * factor);
+            rebased.add(new Entry(weight * factor, id));
+        });
+        weights = rebasedWeights;
+        epoch = newEpoch;
+        ranking = rebased;
+        log.info("Trending index rebased with {} publications", rebasedWeights.size());
+        return true;
+    }
+
+    private double unit(long at) {
+        return Math.exp(lambda * (at - epoch));
+    }
+
+    private static long now() {
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+}
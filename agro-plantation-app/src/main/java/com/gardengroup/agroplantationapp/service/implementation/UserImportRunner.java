@@ -0,0 +1,68 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.gardengroup.agroplantationapp.service.implementation.UserImportService.Report;
+import com.gardengroup.agroplantationapp.service.implementation.UserImportService.RowError;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Importación de usuarios desde la línea de comandos:
+ *
+ * java -jar agro-plantation-app.jar --import-users=usuarios.csv
+ * --spring.main.web-application-type=none
+ *
+ * El formato se deduce de la extensión (.ndjson, .jsonl o .json; si no, CSV).
+ * Al terminar escribe el informe en el log y cierra la aplicación, con código
+ * de salida 1 si alguna fila ha fallado.
+ */
+@Component
+@Slf4j
+public class UserImportRunner implements ApplicationRunner {
+
+    private static final String OPTION = "import-users";
+
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> files = args.getOptionValues(OPTION);
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+
+        int failed = 0;
+        for (String file : files) {
+            try (InputStream input = Files.newInputStream(Path.of(file))) {
+                Report report = userImportService.importUsers(input, UserImportService.formatOf(file))
+                        .orElseThrow(() -> new IllegalStateException("Another user import is in progress"));
+                log.info("{}: {} rows, {} imported, {} duplicates, {} failed in {} ms", file, report.rows(),
+                        report.imported(), report.duplicates(), report.failed(), report.millis());
+                for (RowError error : report.errors()) {
+                    log.warn("{}:{} {} - {}", file, error.line(), error.email(), error.message());
+                }
+                if (report.errorsTruncated()) {
+                    log.warn("{}: more row errors omitted", file);
+                }
+                failed += report.failed();
+            }
+        }
+
+        int exitCode = (failed > 0) ? 1 : 0;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
@@ -0,0 +1,356 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gardengroup.agroplantationapp.model.dto.user.RegisterDTO;
+import com.gardengroup.agroplantationapp.model.repository.UserRepository;
+import com.gardengroup.agroplantationapp.security.BoundedPasswordEncoder;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Alta masiva de usuarios desde un CSV (con cabecera email, password, name,
+ * lastname, address) o un NDJSON con los campos de RegisterDTO. El fichero se
+ * lee en streaming: cada fila se valida y se descarta si su email ya existe
+ * (los emails se cargan una vez al empezar), su contraseña se cifra en un pool
+ * de user.import.threads hilos y las filas se insertan con batches JDBC de
+ * user.import.batch-size. Un error en una fila se anota en el informe sin
+ * detener la importación.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    public record RowError(long line, String email, String message) {
+    }
+
+    public record Report(long rows, int imported, int duplicates, int failed, List<RowError> errors,
+            boolean errorsTruncated, long millis, double rowsPerSecond) {
+    }
+
+    private record PendingRow(long line, RegisterDTO user, Future<String> password) {
+    }
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final List<String> CSV_COLUMNS = List.of("email", "password", "name", "lastname", "address");
+    // Usuario normal, igual que en el registro
+    private static final long USER_TYPE_ID = 1L;
+    private static final String INSERT_USER = "INSERT INTO `user` (email, password, name, lastname, address, "
+            + "user_type_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final BCryptPasswordEncoder encoder;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor hashers;
+    private final int batchSize;
+    private final int maxErrors;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public UserImportService(BoundedPasswordEncoder passwordEncoder, PlatformTransactionManager transactionManager,
+            @Value("${user.import.threads:0}") int threads,
+            @Value("${user.import.batch-size:500}") int batchSize,
+            @Value("${user.import.max-errors:1000}") int maxErrors) {
+        // Mismo coste que el resto de contraseñas, pero sin el límite de hilos del
+        // login: la importación es de administración y solo hay una a la vez
+        this.encoder = new BCryptPasswordEncoder(passwordEncoder.getStrength());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+
+        int poolSize = (threads > 0) ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashers = new ThreadPoolExecutor(poolSize, poolSize, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(batchSize * 2),
+                runnable -> new Thread(runnable, "user-import-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.hashers.allowCoreThreadTimeOut(true);
+    }
+
+    public static Format formatOf(String contentTypeOrFileName) {
+        String value = (contentTypeOrFileName != null) ? contentTypeOrFileName.toLowerCase(Locale.ROOT) : "";
+        return (value.contains("ndjson") || value.contains("jsonl") || value.endsWith(".json")) ? Format.NDJSON
+                : Format.CSV;
+    }
+
+    // Vacío si ya hay una importación en curso
+    public Optional<Report> importUsers(InputStream input, Format format) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(run(input, format));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Report run(InputStream input, Format format) throws IOException {
+        long start = System.nanoTime();
+        Set<String> emails = new HashSet<>();
+        for (String email : userRepository.findAllEmails()) {
+            emails.add(normalize(email));
+        }
+
+        Counters counters = new Counters();
+        // Como mucho dos lotes en vuelo: mientras se inserta uno, se cifra el siguiente
+        Deque<List<PendingRow>> inFlight = new ArrayDeque<>();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = csvHeader(line);
+                continue;
+            }
+
+            counters.rows++;
+            RegisterDTO user;
+            try {
+                user = (format == Format.CSV) ? csvRow(line, columns) : objectMapper.readValue(line, RegisterDTO.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                counters.failed(new RowError(lineNumber, null, "Fila mal formada: " + e.getMessage()));
+                continue;
+            }
+            if (user == null) {
+                counters.failed(new RowError(lineNumber, null, "Fila mal formada"));
+                continue;
+            }
+
+            String invalid = validate(user);
+            if (invalid != null) {
+                counters.failed(new RowError(lineNumber, user.getEmail(), invalid));
+                continue;
+            }
+            if (!emails.add(normalize(user.getEmail()))) {
+                counters.duplicate(new RowError(lineNumber, user.getEmail(), "El email ya está registrado"));
+                continue;
+            }
+
+            String password = user.getPassword();
+            batch.add(new PendingRow(lineNumber, user, hashers.submit(() -> encoder.encode(password))));
+            if (batch.size() == batchSize) {
+                inFlight.addLast(batch);
+                batch = new ArrayList<>(batchSize);
+                if (inFlight.size() > 1) {
+                    insert(inFlight.removeFirst(), counters);
+                }
+            }
+        }
+        inFlight.addLast(batch);
+        while (!inFlight.isEmpty()) {
+            insert(inFlight.removeFirst(), counters);
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Report report = new Report(counters.rows, counters.imported, counters.duplicates, counters.failed,
+                counters.errors, counters.errorsTruncated, millis, counters.rows * 1000.0 / Math.max(1, millis));
+        log.info("User import: {} rows in {} ms ({} rows/s), {} imported, {} duplicates, {} failed",
+                counters.rows, millis, String.format("%.1f", report.rowsPerSecond()), counters.imported,
+                counters.duplicates, counters.failed);
+        return report;
+    }
+
+    private void insert(List<PendingRow> batch, Counters counters) {
+        List<PendingRow> rows = new ArrayList<>(batch.size());
+        List<Object[]> params = new ArrayList<>(batch.size());
+        for (PendingRow row : batch) {
+            try {
+                params.add(params(row.user(), row.password().get()));
+                rows.add(row);
+            } catch (ExecutionException e) {
+                counters.failed(new RowError(row.line(), row.user().getEmail(),
+                        "Error al cifrar la contraseña: " + e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("User import interrupted", e);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER, params));
+            counters.imported += rows.size();
+        } catch (DataAccessException e) {
+            // El lote se ha deshecho entero; se repite fila a fila para saber cuáles fallan
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    jdbcTemplate.update(INSERT_USER, params.get(i));
+                    counters.imported++;
+                } catch (DataAccessException rowError) {
+                    counters.failed(new RowError(rows.get(i).line(), rows.get(i).user().getEmail(),
+                            "Error al guardar el usuario: " + rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+    }
+
+    private static Object[] params(RegisterDTO user, String password) {
+        return new Object[] { user.getEmail().trim(), password, user.getName().trim(), user.getLastname().trim(),
+                user.getAddress().trim(), USER_TYPE_ID };
+    }
+
+    // Mismos límites que las columnas de User
+    private static String validate(RegisterDTO user) {
+        if (!StringUtils.hasText(user.getEmail()) || !EMAIL.matcher(user.getEmail().trim()).matches()) {
+            return "Email no válido";
+        }
+        if (!StringUtils.hasText(user.getPassword())) {
+            return "Falta la contraseña";
+        }
+        if (!StringUtils.hasText(user.getName()) || !StringUtils.hasText(user.getLastname())
+                || !StringUtils.hasText(user.getAddress())) {
+            return "Faltan nombre, apellido o dirección";
+        }
+        if (user.getEmail().trim().length() > 30 || user.getName().trim().length() > 30
+                || user.getLastname().trim().length() > 30 || user.getAddress().trim().length() > 50) {
+            return "Algún campo supera su longitud máxima";
+        }
+        return null;
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Lectura de CSV: campos separados por comas, con comillas dobles opcionales
+
+    private static Map<String, Integer> csvHeader(String line) {
+        List<String> header = csvFields(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain " + String.join(", ", CSV_COLUMNS));
+        }
+        return columns;
+    }
+
+    private static RegisterDTO csvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = csvFields(line);
+        if (fields.size() < columns.size()) {
+            throw new IllegalArgumentException("expected " + columns.size() + " fields, found " + fields.size());
+        }
+        return new RegisterDTO(fields.get(columns.get("email")), fields.get(columns.get("password")),
+                fields.get(columns.get("name")), fields.get(columns.get("lastname")),
+                fields.get(columns.get("address")));
+    }
+
+    private static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private class Counters {
+        private long rows;
+        private int imported;
+        private int duplicates;
+        private int failed;
+        private final List<RowError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+
+        private void failed(RowError error) {
+            failed++;
+            add(error);
+        }
+
+        private void duplicate(RowError error) {
+            duplicates++;
+            add(error);
+        }
+
+        private void add(RowError error) {
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdownNow();
+    }
+}
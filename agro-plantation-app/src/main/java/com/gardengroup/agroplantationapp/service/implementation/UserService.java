@@ -6,7 +6,10 @@ import com.gardengroup.agroplantationapp.model.dto.user.RegisterDTO;
 import com.gardengroup.agroplantationapp.model.entity.User;
 import com.gardengroup.agroplantationapp.model.entity.UserType;
 import com.gardengroup.agroplantationapp.model.repository.UserRepository;
+import com.gardengroup.agroplantationapp.model.repository.UserTypeRepository;
+import com.gardengroup.agroplantationapp.security.AuthorityRecheckCache;
 import com.gardengroup.agroplantationapp.service.interfaces.IUserService;
+import com.gardengroup.agroplantationapp.utils.AfterCommit;
 import com.gardengroup.agroplantationapp.utils.Constants;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +25,10 @@ public class UserService implements IUserService {
     private UserRepository userRepository;
     @Autowired
     private SecurityService securityService;
+    @Autowired
+    private UserTypeRepository userTypeRepository;
+    @Autowired
+    private AuthorityRecheckCache authorityRecheckCache;
 
     @Transactional
     public User createUser(RegisterDTO dtoRegistrer) {
@@ -78,4 +85,20 @@ public class UserService implements IUserService {
         return userRepository.existsByUseremail(email);
     }
 
+    @Transactional
+    public User changeUserType(String email, String type) {
+        User user = findByEmail(email);
+        UserType userType = userTypeRepository.findByType(type)
+                .orElseThrow(() -> new DataAccessException(Constants.UT_NOT_FOUND) {
+                });
+
+        user.setUserType(userType);
+        User userSaved = userRepository.save(user);
+
+        // Los tokens ya emitidos llevan el rol anterior: vuelven a consultar sus
+        // autoridades, una vez confirmado el cambio
+        AfterCommit.run(() -> authorityRecheckCache.roleChanged(userSaved.getEmail()));
+        return userSaved;
+    }
+
 }
@@ -0,0 +1,189 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.gardengroup.agroplantationapp.model.repository.VoteRepository;
+import com.gardengroup.agroplantationapp.utils.AfterCommit;
+
+/**
+ * Caché opcional (vote.user-cache.enabled) de las publicaciones votadas por
+ * cada usuario, guardadas como un BitSet indexado por id de publicación. Con
+ * ella saber qué publicaciones de una página ha votado el usuario no toca la
+ * base de datos. Es exacta, se mantiene desde los votos al confirmar y está
+ * acotada por vote.user-cache.max-bytes, desalojando los usuarios menos usados.
+ */
+@Service
+public class UserVoteCache {
+
+    // Cambios recientes que se reaplican a las cargas que se solapan con un voto
+    private static final int RECENT_CHANGES = 1024;
+    // Ranuras de las versiones de votos por usuario
+    private static final int USER_STAMP_SLOTS = 4096;
+
+    private record Change(long stamp, Long userId, int publicationId, boolean voted) {
+    }
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Value("${vote.user-cache.enabled:true}")
+    private boolean enabled;
+
+    private final long maxBytes;
+    private final Map<Long, BitSet> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Deque<Change> recent = new ArrayDeque<>();
+    private long weight;
+    // Cambia con cada voto, ordena los cambios recientes
+    private long stamp;
+    // Versión de los votos de cada usuario, repartida en ranuras por id: dos
+    // usuarios en la misma ranura solo se quitan algún 304. Parte de la hora de
+    // arranque porque forma parte del ETag de los feeds.
+    private final long bootStamp = System.currentTimeMillis();
+    private final long[] userStamps = new long[USER_STAMP_SLOTS];
+
+    public UserVoteCache(@Value("${vote.user-cache.max-bytes:4194304}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // Devuelve null si la caché está desactivada o no puede guardar los votos del
+    // usuario, y entonces se consulta la base de datos
+    public Set<Long> votedAmong(Long userId, Collection<Long> publicationIds) {
+        if (!enabled) {
+            return null;
+        }
+
+        BitSet votes = votesOf(userId);
+        if (votes == null) {
+            return null;
+        }
+
+        Set<Long> voted = new HashSet<>();
+        synchronized (this) {
+            for (Long publicationId : publicationIds) {
+                if (fits(publicationId) && votes.get(publicationId.intValue())) {
+                    voted.add(publicationId);
+                }
+            }
+        }
+        return voted;
+    }
+
+    public void voteChanged(Long userId, Long publicationId, boolean voted) {
+        AfterCommit.run(() -> apply(userId, publicationId, voted));
+    }
+
+    // Cambia solo con los votos del usuario (o de otro en su misma ranura), se
+    // mantiene aunque la caché esté desactivada
+    public synchronized String stampOf(Long userId) {
+        return Long.toHexString(bootStamp) + "." + userStamps[slotOf(userId)];
+    }
+
+    private BitSet votesOf(Long userId) {
+        long loadStamp;
+        synchronized (this) {
+            BitSet votes = entries.get(userId);
+            if (votes != null) {
+                return votes;
+            }
+            loadStamp = stamp;
+        }
+
+        // Se carga fuera del lock
+        List<Long> publicationIds = voteRepository.findVotedPublicationIds(userId);
+        BitSet votes = new BitSet();
+        for (Long publicationId : publicationIds) {
+            if (!fits(publicationId)) {
+                return null;
+            }
+            votes.set(publicationId.intValue());
+        }
+
+        synchronized (this) {
+            if (!replay(userId, votes, loadStamp)) {
+                return null;
+            }
+            long bytes = bytes(votes);
+            if (bytes <= maxBytes) {
+                BitSet previous = entries.put(userId, votes);
+                weight += bytes - (previous != null ? bytes(previous) : 0);
+                evictOverflow();
+            }
+        }
+        return votes;
+    }
+
+    private synchronized void apply(Long userId, Long publicationId, boolean voted) {
+        stamp++;
+        userStamps[slotOf(userId)]++;
+        if (!fits(publicationId)) {
+            // Sin registro del cambio, las cargas en curso se descartan
+            recent.clear();
+            BitSet removed = entries.remove(userId);
+            weight -= (removed != null) ? bytes(removed) : 0;
+            return;
+        }
+
+        recent.addLast(new Change(stamp, userId, publicationId.intValue(), voted));
+        if (recent.size() > RECENT_CHANGES) {
+            recent.removeFirst();
+        }
+
+        BitSet votes = entries.get(userId);
+        if (votes != null) {
+            long before = bytes(votes);
+            votes.set(publicationId.intValue(), voted);
+            weight += bytes(votes) - before;
+            evictOverflow();
+        }
+    }
+
+    // Aplica a una carga los votos del usuario confirmados mientras se cargaba.
+    // Si el registro ya no llega tan atrás, la carga se descarta
+    private boolean replay(Long userId, BitSet votes, long loadStamp) {
+        if (loadStamp == stamp) {
+            return true;
+        }
+        if (recent.isEmpty() || recent.peekFirst().stamp() > loadStamp + 1) {
+            return false;
+        }
+        for (Change change : recent) {
+            if (change.stamp() > loadStamp && change.userId().equals(userId)) {
+                votes.set(change.publicationId(), change.voted());
+            }
+        }
+        return true;
+    }
+
+    private void evictOverflow() {
+        Iterator<BitSet> iterator = entries.values().iterator();
+        while (weight > maxBytes && iterator.hasNext()) {
+            weight -= bytes(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    private static int slotOf(Long userId) {
+        return (Long.hashCode(userId) & 0x7fffffff) % USER_STAMP_SLOTS;
+    }
+
+    private static boolean fits(Long publicationId) {
+        return publicationId != null && publicationId >= 0 && publicationId <= Integer.MAX_VALUE;
+    }
+
+    private static long bytes(BitSet votes) {
+        return 48 + votes.size() / 8;
+    }
+}
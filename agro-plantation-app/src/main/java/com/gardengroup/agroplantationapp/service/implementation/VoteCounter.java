@@ -0,0 +1,198 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationScore;
+import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Contador de votos en modo write-behind (vote.counting.mode=write-behind).
+ * Los votos se registran en la tabla vote como siempre, pero el cambio de score
+ * se acumula en memoria en contadores por publicación repartidos en stripes,
+ * y un flusher periódico aplica los deltas agrupados con UPDATEs en lote. El
+ * score en base de datos queda desfasado como mucho vote.write-behind.flush-ms,
+ * y al apagar la aplicación se vacían los deltas pendientes.
+ */
+@Service
+@Slf4j
+public class VoteCounter {
+
+    public static final String MODE_WRITE_BEHIND = "write-behind";
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PublicationRepository publicationRepository;
+    @Autowired
+    private PublicationFeedIndex feedIndex;
+    @Autowired
+    private TopPublicationsCache topPublicationsCache;
+    @Autowired
+    private FeedPageCache feedPageCache;
+    @Autowired
+    private LiveScoreService liveScoreService;
+
+    @Value("${vote.counting.mode:direct}")
+    private String mode;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Cada stripe tiene su propio lock, así los votos de publicaciones distintas
+    // no compiten entre sí
+    private final List<Map<Long, Long>> stripes = new ArrayList<>(STRIPES);
+    // Deltas sacados de los stripes por el flush en curso, visibles en pending()
+    // hasta que su transacción termina
+    private volatile Map<Long, Long> inFlight = Map.of();
+    // Votos registrados en una transacción que todavía no ha pasado su delta al
+    // contador; se reservan antes del commit que hace visible el voto
+    private final Map<Long, Integer> reservations = new ConcurrentHashMap<>();
+
+    public VoteCounter(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new HashMap<>());
+        }
+    }
+
+    public boolean isWriteBehind() {
+        return MODE_WRITE_BEHIND.equalsIgnoreCase(mode);
+    }
+
+    public void add(Long publicationId, int delta) {
+        Map<Long, Long> stripe = stripeOf(publicationId);
+        synchronized (stripe) {
+            stripe.merge(publicationId, (long) delta, Long::sum);
+        }
+    }
+
+    // Suma el delta cuando la transacción actual confirma. Hasta entonces la
+    // publicación queda reservada, así nadie ve el voto en la tabla sin ver
+    // también su delta pendiente
+    public void addOnCommit(Long publicationId, int delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(publicationId, delta);
+            return;
+        }
+
+        reservations.merge(publicationId, 1, Integer::sum);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(publicationId, delta);
+            }
+
+            // Se ejecuta después de afterCommit, o tras un rollback
+            @Override
+            public void afterCompletion(int status) {
+                reservations.computeIfPresent(publicationId, (id, count) -> (count > 1) ? count - 1 : null);
+            }
+        });
+    }
+
+    // Si el score de la publicación ya incluye todos sus votos confirmados. La
+    // reserva se mira antes que el delta: se libera después de sumarlo
+    public boolean isSettled(Long publicationId) {
+        return !reservations.containsKey(publicationId) && pending(publicationId) == 0;
+    }
+
+    // Delta aún no confirmado en base de datos. Los deltas pasan de un stripe a
+    // inFlight con el lock del stripe, así que aquí nunca desaparecen a medio
+    // flush; justo tras confirmar pueden verse un instante en los dos sitios
+    public long pending(Long publicationId) {
+        Map<Long, Long> stripe = stripeOf(publicationId);
+        synchronized (stripe) {
+            return stripe.getOrDefault(publicationId, 0L) + inFlight.getOrDefault(publicationId, 0L);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vote.write-behind.flush-ms:1000}")
+    public void scheduledFlush() {
+        if (isWriteBehind()) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (isWriteBehind()) {
+            int flushed = flush();
+            log.info("Vote counter flushed {} publications on shutdown", flushed);
+        }
+    }
+
+    public synchronized int flush() {
+        Map<Long, Long> deltas = new ConcurrentHashMap<>();
+        inFlight = deltas;
+        try {
+            drain(deltas);
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(deltas));
+            } catch (RuntimeException e) {
+                // Se devuelven los deltas a los contadores para el siguiente intento
+                log.error("Vote counter flush failed: {}", e.getMessage());
+                deltas.forEach((publicationId, delta) -> add(publicationId, delta.intValue()));
+                return 0;
+            }
+            return deltas.size();
+        } finally {
+            inFlight = Map.of();
+        }
+    }
+
+    private void apply(Map<Long, Long> deltas) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((publicationId, delta) -> batch.add(new Object[] { delta, now, publicationId }));
+
+        jdbcTemplate.batchUpdate("UPDATE publication SET score = score + ?, version = COALESCE(version, 0) + 1, "
+                + "updated_at = ? WHERE id = ?", batch);
+
+        // Los índices y cachés necesitan el score final de cada publicación
+        for (PublicationScore score : publicationRepository.findScoresByIdIn(deltas.keySet())) {
+            feedIndex.scoreChanged(score.getId(), score.getScore());
+            topPublicationsCache.scoreChanged(score.getId(), score.getScore());
+            feedPageCache.scoreChanged(score.getId());
+            liveScoreService.scoreChanged(score.getId(), score.getScore());
+        }
+    }
+
+    private void drain(Map<Long, Long> deltas) {
+        for (Map<Long, Long> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.forEach((publicationId, delta) -> {
+                    if (delta != 0) {
+                        deltas.put(publicationId, delta);
+                    }
+                });
+                stripe.clear();
+            }
+        }
+    }
+
+    private Map<Long, Long> stripeOf(Long publicationId) {
+        return stripes.get((Long.hashCode(publicationId) & 0x7fffffff) % STRIPES);
+    }
+}
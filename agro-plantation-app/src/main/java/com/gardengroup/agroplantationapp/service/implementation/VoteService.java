@@ -1,81 +1,113 @@
 package com.gardengroup.agroplantationapp.service.implementation;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
-import com.gardengroup.agroplantationapp.model.entity.Publication;
-import com.gardengroup.agroplantationapp.model.entity.User;
-import com.gardengroup.agroplantationapp.model.entity.Vote;
+import com.gardengroup.agroplantationapp.model.dto.vote.VoteResultDTO;
+import com.gardengroup.agroplantationapp.model.repository.PublicationRepository;
 import com.gardengroup.agroplantationapp.model.repository.VoteRepository;
 import com.gardengroup.agroplantationapp.service.interfaces.IVoteService;
+import com.gardengroup.agroplantationapp.utils.Constants;
 
 import jakarta.transaction.Transactional;
-import lombok.Data;
 
 @Service
 public class VoteService implements IVoteService {
 
     @Autowired
     private VoteRepository voteRepository;
+    @Autowired
+    private PublicationRepository publicationRepository;
+    @Autowired
+    private PublicationFeedIndex feedIndex;
+    @Autowired
+    private TopPublicationsCache topPublicationsCache;
+    @Autowired
+    private FeedPageCache feedPageCache;
+    @Autowired
+    private VoteCounter voteCounter;
+    @Autowired
+    private UserVoteCache userVoteCache;
+    @Autowired
+    private TrendingIndex trendingIndex;
+    @Autowired
+    private LiveScoreService liveScoreService;
 
     public Boolean findByUserAndPublication(Long userId, Long publicationId) {
 
-        return voteRepository.findByUserAndPublication(userId, publicationId).isPresent();
+        return votedAmong(userId, List.of(publicationId)).contains(publicationId);
 
     }
 
-    public Vote findByUserEmailAndPublicationId(String userEmail, Long publicationId) {
-
-        return voteRepository.findByUserEmailAndPublicationId(userEmail, publicationId);
+    // Publicaciones votadas por el usuario entre las dadas, desde la caché de votos
+    // por usuario o con una sola consulta IN
+    public Set<Long> votedAmong(Long userId, Collection<Long> publicationIds) {
+        if (publicationIds.isEmpty()) {
+            return Set.of();
+        }
 
+        Set<Long> voted = userVoteCache.votedAmong(userId, publicationIds);
+        if (voted != null) {
+            return voted;
+        }
+        return new HashSet<>(voteRepository.findVotedAmong(userId, publicationIds));
     }
 
-    @Data
-    public class VoteAndPublicationDTO {
-        private Vote vote;
-        private Publication publication;
+    /*
+     * Alterna el voto sin leer antes la fila: se intenta borrar y, si no había
+     * voto, se inserta. La clave única (user_id, publication_id) serializa dos
+     * toggles simultáneos del mismo usuario, y el score se ajusta con un UPDATE
+     * relativo en la misma transacción, sin leer-modificar-escribir la entidad.
+     */
+    @Transactional
+    public VoteResultDTO toggleVote(Long userId, Long publicationId) {
+        int delta = -voteRepository.deleteVote(userId, publicationId);
+        boolean voted = delta == 0;
+        if (voted) {
+            // 0 filas insertadas si otra petición ya registró el mismo voto
+            delta = voteRepository.insertVote(userId, publicationId);
+        }
+
+        userVoteCache.voteChanged(userId, publicationId, voted);
 
-        public VoteAndPublicationDTO(Vote vote, Publication publication) {
-            this.vote = vote;
-            this.publication = publication;
+        if (delta != 0 && !voteCounter.isWriteBehind()) {
+            publicationRepository.addScore(publicationId, delta, LocalDateTime.now().withNano(0));
         }
-    }
 
-    @Transactional
-    public VoteAndPublicationDTO votePublication(User user, Publication publication) {
-        // Verificar si el usuario ya ha votado en esta publicación
-        Vote existingVote = voteRepository.findByUserEmailAndPublicationId(user.getEmail(), publication.getId());
-
-        if (existingVote != null) {
-            // El usuario ya ha votado antes, eliminar voto
-            voteRepository.delete(existingVote);
-
-            // Actualizar el puntaje de la publicación en función del cambio de estado del
-            // voto
-            int newScore = publication.getScore() - 1; // Calcular el nuevo puntaje
-            publication.setScore(newScore);
-
-            return new VoteAndPublicationDTO(existingVote, publication);
-        } 
-        
-        // El usuario no ha votado antes, se crea un nuevo voto
-        Vote newVote = saveVote(user, publication);
-
-        return new VoteAndPublicationDTO(newVote, publication);
-    }
+        Integer score = publicationRepository.findScoreById(publicationId)
+                .orElseThrow(() -> new DataAccessException(Constants.P_NOT_FOUND) {
+                });
 
-    public Vote saveVote(User user, Publication publication) {
-        Vote newVote = new Vote();
-        newVote.setUser(user);
-        newVote.setPublication(publication);
-        newVote.setState(true); // Indica que el usuario votó positivamente
+        if (delta != 0) {
+            trendingIndex.voteChanged(publicationId, delta);
+            score = changeScore(publicationId, score, delta);
+        }
 
-        // Actualizar el puntaje de la publicación sumando 1 al puntaje actual
-        int newScore = publication.getScore() + 1; // Sumar 1 al puntaje
-        publication.setScore(newScore);
+        return new VoteResultDTO(publicationId, voted, score);
+    }
+
+    // En modo write-behind el cambio se reserva en el contador antes del commit,
+    // se acumula cuando el voto confirma y se aplica en lote; si no, el UPDATE ya se hizo en la transacción
+    // del voto y solo se avisa a los índices y cachés
+    private int changeScore(Long publicationId, int score, int delta) {
+        if (voteCounter.isWriteBehind()) {
+            int pending = (int) voteCounter.pending(publicationId);
+            voteCounter.addOnCommit(publicationId, delta);
+            return score + pending + delta;
+        }
 
-        // Guardar el nuevo voto en la base de datos
-        return voteRepository.save(newVote);
+        feedIndex.scoreChanged(publicationId, score);
+        topPublicationsCache.scoreChanged(publicationId, score);
+        feedPageCache.scoreChanged(publicationId);
+        liveScoreService.scoreChanged(publicationId, score);
+        return score;
     }
 
 }
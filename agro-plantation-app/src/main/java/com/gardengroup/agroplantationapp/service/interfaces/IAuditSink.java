@@ -0,0 +1,11 @@
+package com.gardengroup.agroplantationapp.service.interfaces;
+
+import java.util.List;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+
+public interface IAuditSink {
+
+    // Escribe un lote de registros; lanza la excepción si no se ha podido escribir
+    public void write(List<AuditRecord> batch);
+}
@@ -2,31 +2,48 @@ package com.gardengroup.agroplantationapp.service.interfaces;
 
 import java.util.List;
 import org.springframework.web.multipart.MultipartFile;
+import com.gardengroup.agroplantationapp.model.dto.publication.FeedPageDTO;
 import com.gardengroup.agroplantationapp.model.dto.publication.PublicationDTO;
 import com.gardengroup.agroplantationapp.model.dto.publication.PublicationFilterDTO;
 import com.gardengroup.agroplantationapp.model.dto.publication.PublicationSaveDTO;
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationSummary;
 import com.gardengroup.agroplantationapp.model.dto.publication.PublicationUpdDTO;
+import com.gardengroup.agroplantationapp.model.dto.publication.PublicationVersion;
+import com.gardengroup.agroplantationapp.model.dto.vote.VoteResultDTO;
 import com.gardengroup.agroplantationapp.model.entity.Publication;
-import com.gardengroup.agroplantationapp.model.entity.Vote;
 
 public interface IPublicationService {
 
     public Publication savePublication(PublicationSaveDTO publicationDTO, String email);
 
-    public List<Publication> getTopPublications();
+    public int deletePublicationsByAuthor(Long authorId);
+
+    public List<PublicationSummary> getTopPublications();
 
     public PublicationDTO getPublication(Long id, String email);
 
-    public List<Publication> publicationsByEmail(String email);
+    public VoteResultDTO votePublication(Long publicationId, String email);
+
+    public String getPublicationETag(Long id, PublicationVersion version, String email);
+
+    public PublicationVersion getPublicationVersion(Long id);
+
+    public String getFeedETag(String email);
+
+    public List<PublicationSummary> publicationsByEmail(String email);
+
+    public PublicationFilterDTO getPublicationsByLike(int pag, String email);
+
+    public PublicationFilterDTO getPublicationsByUser(int pag, String email);
 
-    public PublicationFilterDTO getPublicationsByLike(int pag);
+    public PublicationFilterDTO getPublicationsByDate(int pag, String email);
 
-    public PublicationFilterDTO getPublicationsByUser(int pag);
+    public PublicationFilterDTO getPublicationsByAleatory(int pag, Long seed, String email);
 
-    public PublicationFilterDTO getPublicationsByDate(int pag);
+    public PublicationFilterDTO getPublicationsByQuantity(int pag, String email);
 
-    public PublicationFilterDTO getPublicationsByAleatory(int pag);
+    public PublicationFilterDTO getTrendingPublications(int pag, String email);
 
-    public PublicationFilterDTO getPublicationsByQuantity(int pag);
+    public FeedPageDTO getFeed(String order, String cursor, Long seed, String email);
 
 }
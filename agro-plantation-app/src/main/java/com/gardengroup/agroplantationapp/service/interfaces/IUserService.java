@@ -17,6 +17,8 @@ public interface IUserService {
 
     public Boolean existsEmail(String email);
 
+    public User changeUserType(String email, String type);
+
     public AthAnswerDTO authenticate(LoginDTO loginDTO);
 
     public AthAnswerDTO getUserSession(HttpServletRequest request);
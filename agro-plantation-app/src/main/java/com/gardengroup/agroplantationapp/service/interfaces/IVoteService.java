@@ -1,17 +1,15 @@
 package com.gardengroup.agroplantationapp.service.interfaces;
 
-import com.gardengroup.agroplantationapp.model.entity.Publication;
-import com.gardengroup.agroplantationapp.model.entity.User;
-import com.gardengroup.agroplantationapp.model.entity.Vote;
-import com.gardengroup.agroplantationapp.service.implementation.VoteService.VoteAndPublicationDTO;
+import java.util.Collection;
+import java.util.Set;
+
+import com.gardengroup.agroplantationapp.model.dto.vote.VoteResultDTO;
 
 public interface IVoteService {
 
     public Boolean findByUserAndPublication(Long userId, Long publicationId);
 
-    public VoteAndPublicationDTO votePublication(User user, Publication publication);
-
-    public Vote saveVote(User user, Publication publication);
+    public Set<Long> votedAmong(Long userId, Collection<Long> publicationIds);
 
-    public Vote findByUserEmailAndPublicationId(String userEmail, Long publicationId);
+    public VoteResultDTO toggleVote(Long userId, Long publicationId);
 }
@@ -0,0 +1,29 @@
+package com.gardengroup.agroplantationapp.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ejecuta una acción cuando la transacción actual confirma, o en el momento si
+ * no hay transacción activa. Se usa para invalidar cachés sin que otra petición
+ * vuelva a cargar datos que todavía no se han confirmado.
+ */
+public class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
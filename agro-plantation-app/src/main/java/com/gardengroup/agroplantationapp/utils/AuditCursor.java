@@ -0,0 +1,54 @@
+package com.gardengroup.agroplantationapp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import lombok.Getter;
+
+/**
+ * Token opaco de continuación para la consulta de auditoría. Guarda la fecha
+ * (en microsegundos) y el id del último registro entregado, para que la
+ * siguiente página se resuelva con una consulta seek sobre los índices de
+ * audit_log en lugar de un OFFSET.
+ */
+@Getter
+public class AuditCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime timestamp;
+    private final long id;
+
+    public AuditCursor(LocalDateTime timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public String encode() {
+        long micros = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+        String raw = micros + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AuditCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(Constants.CURSOR_INVALID);
+            }
+
+            long micros = Long.parseLong(parts[0]);
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                    Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+            return new AuditCursor(timestamp, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            // NumberFormatException y errores de Base64 también son IllegalArgumentException
+            throw new IllegalArgumentException(Constants.CURSOR_INVALID);
+        }
+    }
+}
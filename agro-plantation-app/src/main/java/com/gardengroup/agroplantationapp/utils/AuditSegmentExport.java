@@ -0,0 +1,58 @@
+package com.gardengroup.agroplantationapp.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+
+/**
+ * Herramienta de línea de comandos que vuelca los segmentos de auditoría a
+ * NDJSON, un registro por línea. No arranca la aplicación:
+ *
+ * java -cp agro-plantation-app.jar
+ * -Dloader.main=com.gardengroup.agroplantationapp.utils.AuditSegmentExport
+ * org.springframework.boot.loader.launch.PropertiesLauncher data/audit
+ * [salida.ndjson]
+ *
+ * Sin fichero de salida escribe en la salida estándar.
+ */
+public class AuditSegmentExport {
+
+    private AuditSegmentExport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: AuditSegmentExport <segment-dir> [output.ndjson]");
+            System.exit(2);
+        }
+
+        long count = export(Path.of(args[0]), (args.length == 2) ? Path.of(args[1]) : null);
+        System.err.println("Exported " + count + " audit records");
+    }
+
+    public static long export(Path directory, Path output) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        long count = 0;
+        try (Writer writer = (output != null) ? Files.newBufferedWriter(output, StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            AuditSegmentReader reader = new AuditSegmentReader(directory);
+            while (reader.hasNext()) {
+                AuditRecord record = reader.next();
+                writer.write(objectMapper.writeValueAsString(record));
+                writer.write('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,167 @@
+package com.gardengroup.agroplantationapp.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+
+/**
+ * Formato binario de los segmentos de auditoría. Cada fichero tiene un tamaño
+ * fijo y empieza con una cabecera (magic, versión y número de segmento) seguida
+ * de registros [longitud int][crc32 int][datos]. Los datos son la fecha en
+ * microsegundos UTC y los campos de texto como [longitud short][UTF-8], -1 para
+ * null. Una longitud 0 (espacio aún sin escribir) o un CRC que no coincide marcan
+ * el final de los datos válidos.
+ */
+public class AuditSegmentFormat {
+
+    public static final int MAGIC = 0x41554431;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_OVERHEAD = 8;
+
+    private static final int MAX_FIELD_BYTES = 2048;
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".seg";
+
+    private AuditSegmentFormat() {
+    }
+
+    public static String fileName(long sequence) {
+        return String.format("%s%020d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    public static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // Segmentos del directorio en orden de escritura
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches(PREFIX + "\\d{20}" + SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public static void writeHeader(ByteBuffer buffer, long sequence) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, sequence);
+    }
+
+    public static boolean validHeader(ByteBuffer buffer) {
+        return buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION;
+    }
+
+    public static byte[] encode(AuditRecord record) {
+        byte[][] fields = { bytes(record.username()), bytes(record.action()), bytes(record.method()),
+                bytes(record.endpoint()), bytes(record.ip()) };
+        int size = Long.BYTES;
+        for (byte[] field : fields) {
+            size += Short.BYTES + ((field != null) ? field.length : 0);
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        LocalDateTime timestamp = record.timestamp();
+        payload.putLong(timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000);
+        for (byte[] field : fields) {
+            if (field == null) {
+                payload.putShort((short) -1);
+            } else {
+                payload.putShort((short) field.length);
+                payload.put(field);
+            }
+        }
+        return payload.array();
+    }
+
+    // Escribe el registro en la posición actual del buffer
+    public static void write(ByteBuffer buffer, byte[] payload) {
+        buffer.putInt(payload.length);
+        buffer.putInt(crc(payload, 0, payload.length));
+        buffer.put(payload);
+    }
+
+    // Lee el registro de la posición actual y avanza tras él; null (sin avanzar)
+    // si ahí terminan los datos válidos
+    public static AuditRecord next(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < RECORD_OVERHEAD) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length <= Long.BYTES || length > buffer.remaining() - RECORD_OVERHEAD) {
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        buffer.get(start + RECORD_OVERHEAD, payload);
+        if (buffer.getInt(start + Integer.BYTES) != crc(payload, 0, length)) {
+            return null;
+        }
+
+        try {
+            AuditRecord record = decode(ByteBuffer.wrap(payload));
+            buffer.position(start + RECORD_OVERHEAD + length);
+            return record;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static AuditRecord decode(ByteBuffer payload) {
+        long micros = payload.getLong();
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+        return new AuditRecord(string(payload), string(payload), string(payload), string(payload), timestamp,
+                string(payload));
+    }
+
+    private static byte[] bytes(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_FIELD_BYTES) {
+            return bytes;
+        }
+        // Se recorta sin partir un carácter UTF-8
+        int end = MAX_FIELD_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        byte[] truncated = new byte[end];
+        System.arraycopy(bytes, 0, truncated, 0, end);
+        return truncated;
+    }
+
+    private static String string(ByteBuffer payload) {
+        short length = payload.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,72 @@
+package com.gardengroup.agroplantationapp.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+
+/**
+ * Recorre en orden los registros de los segmentos de auditoría de un
+ * directorio, mapeando cada fichero en solo lectura. Se puede usar mientras
+ * SegmentAuditSink sigue escribiendo: del segmento activo se leen los
+ * registros completos hasta ese momento.
+ */
+public class AuditSegmentReader implements Iterator<AuditRecord> {
+
+    private final List<Path> segments;
+    private int segmentIndex;
+    private MappedByteBuffer current;
+    private AuditRecord nextRecord;
+
+    public AuditSegmentReader(Path directory) throws IOException {
+        this.segments = AuditSegmentFormat.segments(directory);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextRecord == null) {
+            if (current != null) {
+                nextRecord = AuditSegmentFormat.next(current);
+                if (nextRecord != null) {
+                    break;
+                }
+            }
+            if (segmentIndex >= segments.size()) {
+                return false;
+            }
+            current = open(segments.get(segmentIndex++));
+        }
+        return true;
+    }
+
+    @Override
+    public AuditRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        AuditRecord record = nextRecord;
+        nextRecord = null;
+        return record;
+    }
+
+    // Los segmentos con cabecera inválida se saltan
+    private static MappedByteBuffer open(Path segment) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!AuditSegmentFormat.validHeader(buffer)) {
+                return null;
+            }
+            buffer.position(AuditSegmentFormat.HEADER_SIZE);
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -5,7 +5,16 @@ public class Constants {
     public static final String P_NOT_FOUND = "Publication not found";
     public static final String PS_NOT_FOUND = "Publications not found";
     public static final String U_NOT_FOUND = "User not found";
+    public static final String UT_NOT_FOUND = "User type not found";
     public static final String PAGE_INVALID = "Invalid page number";
+    public static final String PAGE_TOO_DEEP = "Page too deep, use the cursor feed";
+    public static final String FEED_INVALID = "Invalid feed order";
+    public static final String CURSOR_INVALID = "Invalid feed cursor";
+    public static final String LIVE_IDS_INVALID = "Invalid number of publications to follow";
+    public static final String TOKEN_INVALID = "Invalid or expired token";
     public static final int PAGINATION_SIZE = 15;
+    public static final int TOP_PUBLICATIONS_SIZE = 6;
+    // Página máxima de los feeds por número cuando se resuelven con OFFSET en base de datos
+    public static final int MAX_OFFSET_PAGE = 200;
 
 }
@@ -0,0 +1,66 @@
+package com.gardengroup.agroplantationapp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.gardengroup.agroplantationapp.model.dto.publication.FeedKey;
+
+import lombok.Getter;
+
+/**
+ * Token opaco de continuación para los feeds. Guarda la clave de orden de la
+ * última publicación entregada (clave principal, clave secundaria e id) para
+ * que la siguiente página se resuelva con una consulta seek en lugar de un
+ * OFFSET.
+ */
+@Getter
+public class FeedCursor {
+
+    // Fecha máxima representable en DATETIME (9999-12-31 23:59:59) en segundos
+    private static final long MAX_DATETIME_SECONDS = 253402300799L;
+    private static final String SEPARATOR = "|";
+
+    private final FeedOrder order;
+    private final long primaryKey;
+    private final long secondaryKey;
+    private final long id;
+
+    public FeedCursor(FeedOrder order, long primaryKey, long secondaryKey, long id) {
+        this.order = order;
+        this.primaryKey = primaryKey;
+        this.secondaryKey = secondaryKey;
+        this.id = id;
+    }
+
+    public FeedCursor(FeedOrder order, FeedKey key) {
+        this(order, key.getPrimaryKey(), key.getSecondaryKey(), key.getId());
+    }
+
+    // Cursor anterior a la primera publicación de cada orden
+    public static FeedCursor first(FeedOrder order) {
+        long primaryKey = (order == FeedOrder.DATE) ? MAX_DATETIME_SECONDS : Long.MAX_VALUE;
+        return new FeedCursor(order, primaryKey, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public String encode() {
+        String raw = order.name() + SEPARATOR + primaryKey + SEPARATOR + secondaryKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String token, FeedOrder expectedOrder) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+
+            if (parts.length != 4 || FeedOrder.valueOf(parts[0]) != expectedOrder) {
+                throw new IllegalArgumentException(Constants.CURSOR_INVALID);
+            }
+
+            return new FeedCursor(expectedOrder, Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                    Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException y errores de Base64 también son IllegalArgumentException
+            throw new IllegalArgumentException(Constants.CURSOR_INVALID);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.gardengroup.agroplantationapp.utils;
+
+/**
+ * Ordenes de los feeds de publicaciones, con el segmento de ruta que los
+ * identifica en los endpoints.
+ */
+public enum FeedOrder {
+
+    LIKE("like"),
+    USER("user"),
+    DATE("date"),
+    QUANTITY("userQuantity"),
+    RANDOM("aleatory");
+
+    private final String path;
+
+    FeedOrder(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public static FeedOrder fromPath(String path) {
+        for (FeedOrder order : values()) {
+            if (order.path.equalsIgnoreCase(path)) {
+                return order;
+            }
+        }
+        throw new IllegalArgumentException(Constants.FEED_INVALID);
+    }
+}
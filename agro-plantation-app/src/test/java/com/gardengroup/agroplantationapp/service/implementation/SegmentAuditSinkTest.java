@@ -0,0 +1,151 @@
+package com.gardengroup.agroplantationapp.service.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+import com.gardengroup.agroplantationapp.utils.AuditSegmentFormat;
+import com.gardengroup.agroplantationapp.utils.AuditSegmentReader;
+
+class SegmentAuditSinkTest {
+
+    // Caben unos pocos registros por segmento, así se fuerzan los cambios de segmento
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenContinuesAfterTheLastRecordAndDropsATornOne() throws IOException {
+        SegmentAuditSink sink = open(4096, 0, 0);
+        sink.write(records(0, 3));
+        sink.close();
+
+        // Restos de un registro a medio escribir tras el último válido
+        Path segment = AuditSegmentFormat.segments(directory).get(0);
+        int end = endOfRecords(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 40, 1, 2, 3, 4, 5, 6 }), end);
+        }
+
+        sink = open(4096, 0, 0);
+        sink.write(records(3, 4));
+        sink.close();
+
+        assertEquals(List.of(segment), AuditSegmentFormat.segments(directory));
+        assertEquals(records(0, 4), readAll());
+    }
+
+    @Test
+    void reopenWithInvalidHeaderStartsANewSegment() throws IOException {
+        SegmentAuditSink sink = open(4096, 0, 0);
+        sink.write(records(0, 2));
+        sink.close();
+
+        Path segment = AuditSegmentFormat.segments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[4]), 0);
+        }
+
+        sink = open(4096, 0, 0);
+        sink.write(records(2, 3));
+        sink.close();
+
+        List<Path> segments = AuditSegmentFormat.segments(directory);
+        assertEquals(2, segments.size());
+        // El segmento dañado se salta al leer
+        assertEquals(records(2, 3), readAll());
+    }
+
+    @Test
+    void retentionKeepsAtMostMaxSegments() throws IOException {
+        SegmentAuditSink sink = open(SEGMENT_SIZE, 0, 2);
+        sink.write(records(0, 40));
+        sink.close();
+
+        List<Path> segments = AuditSegmentFormat.segments(directory);
+        assertEquals(2, segments.size());
+        // Se conservan los más nuevos, el último es el que estaba abierto
+        List<AuditRecord> read = readAll();
+        assertEquals(records(40 - read.size(), 40), read);
+        assertTrue(AuditSegmentFormat.sequenceOf(segments.get(1)) > 2);
+    }
+
+    @Test
+    void retentionDeletesExpiredClosedSegments() throws IOException {
+        SegmentAuditSink sink = open(SEGMENT_SIZE, 1, 0);
+        sink.write(records(0, 12));
+        List<Path> segments = AuditSegmentFormat.segments(directory);
+        assertTrue(segments.size() >= 3);
+
+        // El primero caduca; el activo nunca se borra aunque sea antiguo
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        Path active = segments.get(segments.size() - 1);
+        Files.setLastModifiedTime(segments.get(0), old);
+        Files.setLastModifiedTime(active, old);
+
+        sink.applyRetention();
+        sink.close();
+
+        List<Path> kept = AuditSegmentFormat.segments(directory);
+        assertFalse(kept.contains(segments.get(0)));
+        assertEquals(segments.subList(1, segments.size()), kept);
+        assertTrue(kept.contains(active));
+    }
+
+    @Test
+    void writeAfterCloseFails() throws IOException {
+        SegmentAuditSink sink = open(4096, 0, 0);
+        sink.close();
+
+        assertThrows(IllegalStateException.class, () -> sink.write(records(0, 1)));
+    }
+
+    private SegmentAuditSink open(int segmentSize, int retentionDays, int maxSegments) throws IOException {
+        SegmentAuditSink sink = new SegmentAuditSink(directory.toString(), segmentSize, retentionDays, maxSegments);
+        sink.open();
+        return sink;
+    }
+
+    private List<AuditRecord> readAll() throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        new AuditSegmentReader(directory).forEachRemaining(records::add);
+        return records;
+    }
+
+    private static int endOfRecords(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        buffer.position(AuditSegmentFormat.HEADER_SIZE);
+        while (AuditSegmentFormat.next(buffer) != null) {
+            // Solo interesa la posición tras el último registro válido
+        }
+        return buffer.position();
+    }
+
+    private static List<AuditRecord> records(int from, int to) {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 10, 0);
+        return IntStream.range(from, to)
+                .mapToObj(i -> new AuditRecord("user" + i + "@garden.com", "GET /v1/publication/" + i, "GET",
+                        "/v1/publication/" + i, base.plusSeconds(i), "10.0.0." + i))
+                .toList();
+    }
+}
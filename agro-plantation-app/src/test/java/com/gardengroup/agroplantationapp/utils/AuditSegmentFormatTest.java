@@ -0,0 +1,99 @@
+package com.gardengroup.agroplantationapp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.gardengroup.agroplantationapp.model.dto.audit.AuditRecord;
+
+class AuditSegmentFormatTest {
+
+    private static final AuditRecord FIRST = new AuditRecord("ana@garden.com", "GET /v1/publication", "GET",
+            "/v1/publication", LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_000), "10.0.0.1");
+    private static final AuditRecord SECOND = new AuditRecord(null, "POST /v1/auth/login", "POST",
+            "/v1/auth/login", LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), null);
+
+    @Test
+    void recordsRoundTrip() {
+        ByteBuffer buffer = segment(FIRST, SECOND);
+
+        assertEquals(FIRST, AuditSegmentFormat.next(buffer));
+        assertEquals(SECOND, AuditSegmentFormat.next(buffer));
+        // El espacio sin escribir (longitud 0) es el final de los datos
+        int end = buffer.position();
+        assertNull(AuditSegmentFormat.next(buffer));
+        assertEquals(end, buffer.position());
+    }
+
+    @Test
+    void headerIsValidatedAndSequenceKept() {
+        ByteBuffer buffer = ByteBuffer.allocate(AuditSegmentFormat.HEADER_SIZE);
+        AuditSegmentFormat.writeHeader(buffer, 42);
+
+        assertTrue(AuditSegmentFormat.validHeader(buffer));
+        assertEquals(42, buffer.getLong(8));
+
+        buffer.putInt(0, 0);
+        assertFalse(AuditSegmentFormat.validHeader(buffer));
+    }
+
+    @Test
+    void crcMismatchEndsTheValidData() {
+        ByteBuffer buffer = segment(FIRST, SECOND);
+        int second = AuditSegmentFormat.HEADER_SIZE + AuditSegmentFormat.RECORD_OVERHEAD
+                + AuditSegmentFormat.encode(FIRST).length;
+        // Un byte cambiado en los datos del segundo registro
+        int corrupted = second + AuditSegmentFormat.RECORD_OVERHEAD + 3;
+        buffer.put(corrupted, (byte) (buffer.get(corrupted) ^ 0x01));
+
+        assertEquals(FIRST, AuditSegmentFormat.next(buffer));
+        assertNull(AuditSegmentFormat.next(buffer));
+        assertEquals(second, buffer.position());
+    }
+
+    @Test
+    void truncatedTailIsNotRead() {
+        ByteBuffer buffer = segment(FIRST, SECOND);
+        int second = AuditSegmentFormat.HEADER_SIZE + AuditSegmentFormat.RECORD_OVERHEAD
+                + AuditSegmentFormat.encode(FIRST).length;
+        // El fichero acaba a mitad del segundo registro
+        buffer.limit(second + AuditSegmentFormat.RECORD_OVERHEAD + 5);
+
+        assertEquals(FIRST, AuditSegmentFormat.next(buffer));
+        assertNull(AuditSegmentFormat.next(buffer));
+        assertEquals(second, buffer.position());
+
+        // Ni siquiera cabe la cabecera del registro
+        buffer.limit(second + 3);
+        assertNull(AuditSegmentFormat.next(buffer));
+        assertEquals(second, buffer.position());
+    }
+
+    @Test
+    void longFieldsAreCutOnACharacterBoundary() {
+        String endpoint = "/" + "ñ".repeat(2000);
+        AuditRecord record = new AuditRecord("ana@garden.com", "GET", "GET", endpoint, FIRST.timestamp(), null);
+
+        AuditRecord read = AuditSegmentFormat.next(segment(record));
+
+        // 2048 bytes: la barra y 1023 caracteres de dos bytes
+        assertEquals(endpoint.substring(0, 1024), read.endpoint());
+    }
+
+    private static ByteBuffer segment(AuditRecord... records) {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        AuditSegmentFormat.writeHeader(buffer, 1);
+        buffer.position(AuditSegmentFormat.HEADER_SIZE);
+        for (AuditRecord record : records) {
+            AuditSegmentFormat.write(buffer, AuditSegmentFormat.encode(record));
+        }
+        buffer.position(AuditSegmentFormat.HEADER_SIZE);
+        return buffer;
+    }
+}